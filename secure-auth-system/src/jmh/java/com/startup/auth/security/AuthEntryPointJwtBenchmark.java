@@ -0,0 +1,50 @@
+package com.startup.auth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each invocation includes allocating the mock response, which a committed response cannot reuse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthEntryPointJwtBenchmark {
+
+    private AuthEntryPointJwt entryPoint;
+    private MockHttpServletRequest request;
+    private AuthenticationException exception;
+
+    @Setup
+    public void setUp() {
+        entryPoint = new AuthEntryPointJwt(new AuthFailureLog(new SimpleMeterRegistry(), 10_000));
+        request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.setServletPath("/users/me");
+        exception = new InsufficientAuthenticationException("Full authentication is required to access this resource");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse commence() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        entryPoint.commence(request, response, exception);
+        return response;
+    }
+}
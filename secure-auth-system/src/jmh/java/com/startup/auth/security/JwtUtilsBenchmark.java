@@ -0,0 +1,56 @@
+package com.startup.auth.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private JwtUtils jwtUtils;
+    private UserPrincipal principal;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = SecurityFixtures.jwtUtils();
+        RoleRegistry roleRegistry = SecurityFixtures.roleRegistry(SecurityFixtures.roles(4));
+        principal = UserPrincipal.create(SecurityFixtures.user(SecurityFixtures.roles(2)), roleRegistry);
+        accessToken = jwtUtils.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtils.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(accessToken);
+    }
+
+    @Benchmark
+    public Optional<JwtClaims> validateAndParse() {
+        return jwtUtils.validateAndParse(accessToken);
+    }
+
+    @Benchmark
+    public Long getUserIdFromJwtToken() {
+        return jwtUtils.getUserIdFromJwtToken(accessToken);
+    }
+}
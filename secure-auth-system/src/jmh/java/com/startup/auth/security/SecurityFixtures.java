@@ -0,0 +1,80 @@
+package com.startup.auth.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.startup.auth.entity.Role;
+import com.startup.auth.entity.User;
+import com.startup.auth.repository.RoleRepository;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the security components outside of Spring, without Redis or a database.
+ */
+final class SecurityFixtures {
+
+    static final String SECRET = "benchmarkSecretKey123456789012345678901234567890";
+
+    private SecurityFixtures() {
+    }
+
+    static JwtUtils jwtUtils() {
+        // Only the in-memory session epochs are consulted when issuing tokens
+        TokenRevocationService revocationService = new TokenRevocationService(new StringRedisTemplate(), null);
+        JwtKeyRing hmacOnly = new JwtKeyRing(new DefaultResourceLoader(), new ObjectMapper(), "", false, SECRET, 900000);
+        JwtUtils jwtUtils = new JwtUtils(revocationService, hmacOnly);
+        setField(jwtUtils, "jwtSecret", SECRET);
+        setField(jwtUtils, "jwtExpirationMs", 900000);
+        setField(jwtUtils, "jwtRefreshExpirationMs", 86400000);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static List<Role> roles(int count) {
+        List<Role> roles = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            roles.add(Role.builder().id(id).name("ROLE" + id).build());
+        }
+        return roles;
+    }
+
+    static RoleRegistry roleRegistry(List<Role> roles) {
+        RoleRepository repository = (RoleRepository) Proxy.newProxyInstance(
+                RoleRepository.class.getClassLoader(),
+                new Class<?>[]{RoleRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return roles;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        RoleRegistry registry = new RoleRegistry(repository, new StringRedisTemplate(), null);
+        registry.reload();
+        return registry;
+    }
+
+    static User user(List<Role> roles) {
+        return User.builder()
+                .id(42L)
+                .email("worker@example.com")
+                .phone("+1234567890")
+                .passwordHash("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z4oZVGPaBq4eI4t2hKD1e3Oa")
+                .isActive(true)
+                .mfaEnabled(false)
+                .roles(new HashSet<>(roles))
+                .build();
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
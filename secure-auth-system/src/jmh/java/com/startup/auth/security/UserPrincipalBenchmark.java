@@ -0,0 +1,45 @@
+package com.startup.auth.security;
+
+import com.startup.auth.entity.Role;
+import com.startup.auth.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPrincipalBenchmark {
+
+    @Param({"1", "4", "16"})
+    private int roleCount;
+
+    private RoleRegistry roleRegistry;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        List<Role> roles = SecurityFixtures.roles(roleCount);
+        roleRegistry = SecurityFixtures.roleRegistry(roles);
+        user = SecurityFixtures.user(roles);
+    }
+
+    @Benchmark
+    public UserPrincipal createFromUser() {
+        return UserPrincipal.create(user, roleRegistry);
+    }
+}
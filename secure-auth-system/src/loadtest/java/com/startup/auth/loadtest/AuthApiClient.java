@@ -0,0 +1,98 @@
+package com.startup.auth.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Blocking client for the endpoints in docs/API.md. Non-2xx responses throw, so callers count them as errors.
+ */
+final class AuthApiClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    AuthApiClient(URI baseUri) {
+        this.baseUri = baseUri;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    // Every sign-in claims a new device; a repeated deviceId would rotate, and so invalidate,
+    // the session a scenario obtained earlier for that user
+    Tokens register(String email, String phone, String password) throws IOException, InterruptedException {
+        return tokens(post("/auth/register", Map.of("email", email, "phone", phone, "password", password,
+                "deviceId", newDeviceId(), "deviceInfo", "loadtest"), null));
+    }
+
+    Tokens login(String email, String password) throws IOException, InterruptedException {
+        return tokens(post("/auth/login", Map.of("email", email, "password", password,
+                "deviceId", newDeviceId(), "deviceInfo", "loadtest"), null));
+    }
+
+    Tokens refresh(String refreshToken) throws IOException, InterruptedException {
+        return tokens(post("/auth/refresh-token", Map.of("refreshToken", refreshToken), null));
+    }
+
+    void logout(Tokens tokens) throws IOException, InterruptedException {
+        post("/auth/logout", Map.of("refreshToken", tokens.refreshToken()), tokens.accessToken());
+    }
+
+    void sendOtp(String phoneNumber) throws IOException, InterruptedException {
+        post("/auth/send-otp", Map.of("phoneNumber", phoneNumber), null);
+    }
+
+    // A bearer-protected read, so the request goes through access-token validation
+    void listSessions(Tokens tokens) throws IOException, InterruptedException {
+        send("/sessions", HttpRequest.newBuilder().GET(), tokens.accessToken());
+    }
+
+    private JsonNode post(String path, Map<String, String> body, String accessToken)
+            throws IOException, InterruptedException {
+        return send(path, HttpRequest.newBuilder()
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))), accessToken);
+    }
+
+    private JsonNode send(String path, HttpRequest.Builder request, String accessToken)
+            throws IOException, InterruptedException {
+        request.uri(baseUri.resolve(baseUri.getPath() + path)).timeout(TIMEOUT);
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(path + " returned " + response.statusCode());
+        }
+        return response.body().length > 0 ? objectMapper.readTree(response.body()) : null;
+    }
+
+    private static String newDeviceId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Tokens tokens(JsonNode response) throws IOException {
+        JsonNode data = response != null ? response.path("data") : null;
+        if (data == null || !data.hasNonNull("accessToken")) {
+            throw new IOException("Response carries no tokens");
+        }
+        return new Tokens(data.get("accessToken").asText(), data.get("refreshToken").asText());
+    }
+
+    record Tokens(String accessToken, String refreshToken) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.startup.auth.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs each scenario as a fixed number of requests spread over {@code concurrency} clients.
+ * Anything a scenario consumes (users, sessions to log out, unexpired access tokens) is prepared
+ * before the statement counters are reset, so only the measured requests are counted.
+ */
+final class LoadDriver {
+
+    private static final String PASSWORD = "password123";
+    // Recorded in microseconds, up to one minute
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadTestConfig config;
+    private final AuthApiClient client;
+    private final LocalInfrastructure infrastructure;
+    private final ExecutorService clients;
+
+    private final AtomicLong userSequence = new AtomicLong();
+    private final List<User> users = new ArrayList<>();
+    private final List<AuthApiClient.Tokens> sessions = new ArrayList<>();
+
+    LoadDriver(LoadTestConfig config, AuthApiClient client, LocalInfrastructure infrastructure) {
+        this.config = config;
+        this.client = client;
+        this.infrastructure = infrastructure;
+        this.clients = Executors.newFixedThreadPool(config.concurrency());
+    }
+
+    /**
+     * Registers the users that the login, refresh, logout, OTP and authenticated scenarios act on.
+     */
+    void seedUsers() throws Exception {
+        ConcurrentLinkedQueue<User> seeded = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<AuthApiClient.Tokens> seededSessions = new ConcurrentLinkedQueue<>();
+        runUntimed(config.users(), () -> {
+            User user = nextUser();
+            seededSessions.add(client.register(user.email(), user.phone(), PASSWORD));
+            seeded.add(user);
+        });
+        users.addAll(seeded);
+        sessions.addAll(seededSessions);
+    }
+
+    ScenarioResult run(Scenario scenario) throws Exception {
+        List<Scenario> operations = plan(scenario);
+        ConcurrentLinkedQueue<AuthApiClient.Tokens> logoutSessions = prepareLogouts(operations);
+        List<AuthApiClient.Tokens> accessTokens = prepareAccessTokens(operations);
+
+        infrastructure.resetStatementStats();
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<Histogram>> workers = new ArrayList<>(config.concurrency());
+        long startedAt = System.nanoTime();
+
+        for (int i = 0; i < config.concurrency(); i++) {
+            workers.add(clients.submit(() -> {
+                Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+                int index;
+                while ((index = next.getAndIncrement()) < operations.size()) {
+                    long begin = System.nanoTime();
+                    try {
+                        execute(operations.get(index), index, logoutSessions, accessTokens);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+                    histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                }
+                return histogram;
+            }));
+        }
+
+        Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        for (Future<Histogram> worker : workers) {
+            latency.add(worker.get());
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        return new ScenarioResult(scenario, operations.size(), errors.get(), elapsedNanos, latency,
+                infrastructure.statementStats());
+    }
+
+    void shutdown() {
+        clients.shutdownNow();
+    }
+
+    private void execute(Scenario operation, int index,
+                         ConcurrentLinkedQueue<AuthApiClient.Tokens> logoutSessions,
+                         List<AuthApiClient.Tokens> accessTokens) throws Exception {
+        switch (operation) {
+            case REGISTER -> {
+                User user = nextUser();
+                client.register(user.email(), user.phone(), PASSWORD);
+            }
+            case LOGIN -> {
+                User user = users.get(index % users.size());
+                client.login(user.email(), PASSWORD);
+            }
+            case REFRESH -> client.refresh(sessions.get(index % sessions.size()).refreshToken());
+            case LOGOUT -> {
+                AuthApiClient.Tokens tokens = logoutSessions.poll();
+                if (tokens == null) {
+                    throw new IllegalStateException("No prepared session left to log out");
+                }
+                client.logout(tokens);
+            }
+            case OTP -> client.sendOtp(users.get(index % users.size()).phone());
+            case AUTHENTICATED -> client.listSessions(accessTokens.get(index % accessTokens.size()));
+            default -> throw new IllegalArgumentException("Not a single operation: " + operation);
+        }
+    }
+
+    // The mixed scenario gets an exact, shuffled share of each operation according to the weights
+    private List<Scenario> plan(Scenario scenario) {
+        if (scenario != Scenario.MIXED) {
+            return Collections.nCopies(config.requests(), scenario);
+        }
+
+        int totalWeight = config.mix().values().stream().mapToInt(Integer::intValue).sum();
+        List<Scenario> operations = new ArrayList<>(config.requests());
+        for (Map.Entry<Scenario, Integer> entry : config.mix().entrySet()) {
+            long count = (long) config.requests() * entry.getValue() / totalWeight;
+            for (long i = 0; i < count; i++) {
+                operations.add(entry.getKey());
+            }
+        }
+        Collections.shuffle(operations);
+        return operations;
+    }
+
+    private ConcurrentLinkedQueue<AuthApiClient.Tokens> prepareLogouts(List<Scenario> operations) throws Exception {
+        int logouts = (int) operations.stream().filter(operation -> operation == Scenario.LOGOUT).count();
+        ConcurrentLinkedQueue<AuthApiClient.Tokens> prepared = new ConcurrentLinkedQueue<>();
+        AtomicInteger sequence = new AtomicInteger();
+        runUntimed(logouts, () -> {
+            User user = users.get(sequence.getAndIncrement() % users.size());
+            prepared.add(client.login(user.email(), PASSWORD));
+        });
+        return prepared;
+    }
+
+    // Access tokens from seeding may have expired by the time a later scenario runs
+    private List<AuthApiClient.Tokens> prepareAccessTokens(List<Scenario> operations) throws Exception {
+        if (!operations.contains(Scenario.AUTHENTICATED)) {
+            return List.of();
+        }
+        ConcurrentLinkedQueue<AuthApiClient.Tokens> refreshed = new ConcurrentLinkedQueue<>();
+        AtomicInteger sequence = new AtomicInteger();
+        runUntimed(sessions.size(), () ->
+                refreshed.add(client.refresh(sessions.get(sequence.getAndIncrement()).refreshToken())));
+        return new ArrayList<>(refreshed);
+    }
+
+    private void runUntimed(int count, Task task) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(count);
+        List<Future<Void>> workers = new ArrayList<>(config.concurrency());
+        for (int i = 0; i < config.concurrency(); i++) {
+            workers.add(clients.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    task.run();
+                }
+                return null;
+            }));
+        }
+        for (Future<Void> worker : workers) {
+            worker.get();
+        }
+    }
+
+    private User nextUser() {
+        long n = userSequence.incrementAndGet();
+        return new User("loadtest-" + n + "@example.com", String.format("+1555%07d", n));
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private record User(String email, String phone) {
+    }
+
+    record ScenarioResult(Scenario scenario, int requests, int errors, long elapsedNanos, Histogram latency,
+                          List<LocalInfrastructure.StatementCount> statements) {
+
+        double throughput() {
+            return requests / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        long statementCount() {
+            return statements.stream().mapToLong(LocalInfrastructure.StatementCount::calls).sum();
+        }
+    }
+}
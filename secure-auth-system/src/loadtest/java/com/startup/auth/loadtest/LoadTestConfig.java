@@ -0,0 +1,49 @@
+package com.startup.auth.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load-test settings, read from {@code loadtest.*} system properties.
+ *
+ * @param concurrency concurrent clients per scenario
+ * @param requests    measured requests per scenario
+ * @param users       users registered up front for the login, refresh, logout and authenticated scenarios
+ * @param scenarios   scenarios to run, in order
+ * @param mix         request weights for the mixed scenario
+ */
+record LoadTestConfig(int concurrency, int requests, int users, List<Scenario> scenarios, Map<Scenario, Integer> mix) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.concurrency", 50),
+                Integer.getInteger("loadtest.requests", 5000),
+                Integer.getInteger("loadtest.users", 1000),
+                parseScenarios(System.getProperty("loadtest.scenarios", "register,login,refresh,logout,otp,authenticated,mixed")),
+                parseMix(System.getProperty("loadtest.mix", "login:40,refresh:40,register:10,logout:5,otp:5")));
+    }
+
+    private static List<Scenario> parseScenarios(String value) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : value.split(",")) {
+            scenarios.add(Scenario.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return scenarios;
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            Scenario scenario = Scenario.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            if (scenario == Scenario.MIXED) {
+                throw new IllegalArgumentException("The mix cannot contain the mixed scenario");
+            }
+            mix.put(scenario, Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,74 @@
+package com.startup.auth.loadtest;
+
+import com.startup.auth.SecureAuthApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts Postgres and Redis containers, boots the service against them on a random port and
+ * runs the configured scenarios over HTTP. See docs/LOAD_TESTING.md.
+ */
+public final class LoadTestRunner {
+
+    private static final int TOP_STATEMENTS = 5;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+        try (LocalInfrastructure infrastructure = new LocalInfrastructure()) {
+            infrastructure.start();
+
+            try (ConfigurableApplicationContext application = new SpringApplicationBuilder(SecureAuthApplication.class)
+                    .profiles("loadtest")
+                    .properties(infrastructure.applicationProperties())
+                    .run(args)) {
+                int port = application.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                String contextPath = application.getEnvironment().getProperty("server.servlet.context-path", "");
+                AuthApiClient client = new AuthApiClient(URI.create("http://localhost:" + port + contextPath));
+
+                LoadDriver driver = new LoadDriver(config, client, infrastructure);
+                try {
+                    driver.seedUsers();
+                    List<LoadDriver.ScenarioResult> results = new ArrayList<>();
+                    for (Scenario scenario : config.scenarios()) {
+                        results.add(driver.run(scenario));
+                    }
+                    print(config, results, System.out);
+                } finally {
+                    driver.shutdown();
+                }
+            }
+        }
+    }
+
+    private static void print(LoadTestConfig config, List<LoadDriver.ScenarioResult> results, PrintStream out) {
+        out.printf("%nConcurrency %d, %d requests per scenario, %d seeded users%n%n",
+                config.concurrency(), config.requests(), config.users());
+        out.printf("%-10s %9s %7s %11s %9s %9s %9s %11s %10s%n",
+                "Scenario", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "Statements", "Stmt/req");
+        for (LoadDriver.ScenarioResult result : results) {
+            out.printf("%-10s %9d %7d %11.1f %9.2f %9.2f %9.2f %11d %10.2f%n",
+                    result.scenario(), result.requests(), result.errors(), result.throughput(),
+                    millis(result, 50), millis(result, 99), millis(result, 99.9),
+                    result.statementCount(), (double) result.statementCount() / result.requests());
+        }
+
+        for (LoadDriver.ScenarioResult result : results) {
+            out.printf("%n%s: most frequent statements%n", result.scenario());
+            result.statements().stream().limit(TOP_STATEMENTS).forEach(statement ->
+                    out.printf("%10d  %s%n", statement.calls(), statement.query().replaceAll("\\s+", " ")));
+        }
+    }
+
+    private static double millis(LoadDriver.ScenarioResult result, double percentile) {
+        return result.latency().getValueAtPercentile(percentile) / 1000.0;
+    }
+}
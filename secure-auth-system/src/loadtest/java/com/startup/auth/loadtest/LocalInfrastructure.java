@@ -0,0 +1,94 @@
+package com.startup.auth.loadtest;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Throwaway Postgres and Redis matching docker-compose.yml. Postgres loads pg_stat_statements
+ * so statements issued by the application can be counted per scenario.
+ */
+final class LocalInfrastructure implements AutoCloseable {
+
+    private static final String DATABASE = "startup_auth_db";
+    private static final String USERNAME = "postgres";
+    private static final String PASSWORD = "password";
+
+    private final GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:15-alpine"))
+            .withEnv("POSTGRES_DB", DATABASE)
+            .withEnv("POSTGRES_USER", USERNAME)
+            .withEnv("POSTGRES_PASSWORD", PASSWORD)
+            .withCommand("postgres", "-c", "shared_preload_libraries=pg_stat_statements", "-c", "max_connections=200")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*\\s", 2));
+
+    private final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    void start() throws SQLException {
+        postgres.start();
+        redis.start();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_stat_statements");
+        }
+    }
+
+    Map<String, Object> applicationProperties() {
+        return Map.of(
+                "spring.datasource.url", jdbcUrl(),
+                "spring.datasource.username", USERNAME,
+                "spring.datasource.password", PASSWORD,
+                "spring.data.redis.host", redis.getHost(),
+                "spring.data.redis.port", redis.getMappedPort(6379));
+    }
+
+    void resetStatementStats() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_stat_statements_reset()");
+        }
+    }
+
+    /**
+     * Statements executed against the application database since the last reset, busiest first.
+     */
+    List<StatementCount> statementStats() throws SQLException {
+        List<StatementCount> counts = new ArrayList<>();
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT s.query, s.calls FROM pg_stat_statements s JOIN pg_database d ON d.oid = s.dbid " +
+                     "WHERE d.datname = current_database() AND s.query NOT ILIKE '%pg_stat_statements%' " +
+                     "ORDER BY s.calls DESC")) {
+            while (rs.next()) {
+                counts.add(new StatementCount(rs.getString("query"), rs.getLong("calls")));
+            }
+        }
+        return counts;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl(), USERNAME, PASSWORD);
+    }
+
+    private String jdbcUrl() {
+        return "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getMappedPort(5432) + "/" + DATABASE;
+    }
+
+    @Override
+    public void close() {
+        redis.stop();
+        postgres.stop();
+    }
+
+    record StatementCount(String query, long calls) {
+    }
+}
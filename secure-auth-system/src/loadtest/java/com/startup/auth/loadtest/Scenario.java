@@ -0,0 +1,5 @@
+package com.startup.auth.loadtest;
+
+enum Scenario {
+    REGISTER, LOGIN, REFRESH, LOGOUT, OTP, AUTHENTICATED, MIXED
+}
@@ -0,0 +1,32 @@
+package com.startup.auth.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.startup.auth.security.RoleRegistry;
+import com.startup.auth.security.UserPrincipal;
+
+/**
+ * Redis representation of a {@link UserPrincipal}; roles are stored as the role mask.
+ * The password hash is never written to the shared tier, so principals read back from
+ * Redis carry no password and cannot be used to check credentials.
+ * <p>
+ * An entry without a role mask or active flag, such as one written before the mask existed,
+ * fails to deserialize and is treated as a miss rather than read as a user with no roles.
+ */
+record CachedUser(Long id, String email, String phone,
+                  @JsonProperty(required = true) long roleMask,
+                  @JsonProperty(required = true) boolean active) {
+
+    static CachedUser from(UserPrincipal principal) {
+        return new CachedUser(
+                principal.getId(),
+                principal.getEmail(),
+                principal.getPhone(),
+                principal.getRoleMask(),
+                principal.isActive()
+        );
+    }
+
+    UserPrincipal toPrincipal(RoleRegistry roleRegistry) {
+        return UserPrincipal.create(id, email, phone, null, roleMask, active, roleRegistry);
+    }
+}
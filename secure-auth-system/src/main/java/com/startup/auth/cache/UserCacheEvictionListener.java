@@ -0,0 +1,39 @@
+package com.startup.auth.cache;
+
+import com.startup.auth.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cached principals once a change to a {@link User} row has committed, so other
+ * nodes cannot reload the pre-commit state. Role changes that only touch {@code user_roles}
+ * do not trigger entity callbacks; {@link UserRolesEvictionListener} covers those.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    private final UserPrincipalCache userPrincipalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Long id = user.getId();
+        String email = user.getEmail();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userPrincipalCache.evict(id, email);
+                }
+            });
+        } else {
+            userPrincipalCache.evict(id, email);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.startup.auth.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.startup.auth.security.RoleRegistry;
+import com.startup.auth.security.UserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of {@link UserPrincipal}s keyed by user id and by email.
+ * <p>
+ * The local tier is bounded by size and TTL; the Redis tier is shared by all nodes and is
+ * keyed by id only. Password hashes stay in the local tier: lookups by email serve logins,
+ * so they are answered locally from principals loaded from the database, or miss.
+ * <p>
+ * Only loads by id write to Redis, and only if no eviction happened since the load began:
+ * read {@link #generation(Long)} before querying the database and pass it to
+ * {@link #put(UserPrincipal, long)}. Otherwise a row read just before an eviction could be
+ * written back after it and outlive the change for the whole Redis TTL.
+ * {@link #evict(Long, String)} removes both tiers and broadcasts the eviction on
+ * {@link #INVALIDATION_CHANNEL} so other nodes drop their local copies. If a message
+ * is missed, the local TTL bounds how long a stale entry can survive.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    public static final String INVALIDATION_CHANNEL = "auth:user-cache:invalidate";
+
+    // No Redis access, or Redis is unavailable: skip the shared tier
+    public static final long NO_GENERATION = -1;
+
+    // KEYS: entry, generation. ARGV: expected generation, entry, TTL in ms.
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end "
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) "
+                    + "return 1",
+            Long.class);
+
+    // KEYS: entry, generation. ARGV: TTL in ms, which outlives any load still in flight.
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "local generation = redis.call('INCR', KEYS[2]) "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[1]) "
+                    + "return generation",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RoleRegistry roleRegistry;
+
+    private final Cache<Long, UserPrincipal> localById;
+    private final Cache<String, UserPrincipal> localByEmail;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    private final boolean enabled;
+    private final Duration redisTtl;
+
+    public UserPrincipalCache(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              RoleRegistry roleRegistry,
+                              MeterRegistry meterRegistry,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${app.cache.user.enabled:true}") boolean enabled,
+                              @Value("${app.cache.user.local-max-size:10000}") long localMaxSize,
+                              @Value("${app.cache.user.local-ttl-ms:60000}") long localTtlMs,
+                              @Value("${app.cache.user.redis-ttl-ms:600000}") long redisTtlMs) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.roleRegistry = roleRegistry;
+        this.enabled = enabled;
+        this.redisTtl = Duration.ofMillis(redisTtlMs);
+
+        this.localHits = meterRegistry.counter("auth.user.cache.hits", "tier", "local");
+        this.redisHits = meterRegistry.counter("auth.user.cache.hits", "tier", "redis");
+        this.misses = meterRegistry.counter("auth.user.cache.misses");
+        this.evictions = meterRegistry.counter("auth.user.cache.evictions");
+        this.invalidations = meterRegistry.counter("auth.user.cache.invalidations");
+
+        this.localById = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofMillis(localTtlMs))
+                .removalListener((Long key, UserPrincipal value, RemovalCause cause) -> onRemoval(cause))
+                .build();
+        this.localByEmail = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofMillis(localTtlMs))
+                .removalListener((String key, UserPrincipal value, RemovalCause cause) -> onRemoval(cause))
+                .build();
+
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidationMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public Optional<UserPrincipal> getById(Long id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        UserPrincipal principal = localById.getIfPresent(id);
+        if (principal != null) {
+            localHits.increment();
+            return Optional.of(principal);
+        }
+
+        principal = readRedis(entryKey(id));
+        if (principal != null) {
+            redisHits.increment();
+            putLocal(principal);
+            return Optional.of(principal);
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * A principal with its password hash, for checking credentials. Only the local tier is
+     * consulted, since the Redis tier holds no hashes.
+     */
+    public Optional<UserPrincipal> getByEmail(String email) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        UserPrincipal principal = localByEmail.getIfPresent(email);
+        if (principal != null) {
+            localHits.increment();
+            return Optional.of(principal);
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * The eviction generation of a user, to be read before loading the user from the database.
+     */
+    public long generation(Long id) {
+        if (!enabled) {
+            return NO_GENERATION;
+        }
+
+        try {
+            String generation = redisTemplate.opsForValue().get(generationKey(id));
+            return generation != null ? Long.parseLong(generation) : 0;
+        } catch (Exception e) {
+            log.warn("User cache generation lookup failed for user {}: {}", id, e.getMessage());
+            return NO_GENERATION;
+        }
+    }
+
+    /**
+     * Caches a principal loaded after {@link #generation(Long)} returned {@code generation}.
+     * Nothing is cached if the user was evicted in between.
+     */
+    public void put(UserPrincipal principal, long generation) {
+        if (!enabled) {
+            return;
+        }
+        if (generation == NO_GENERATION) {
+            putLocal(principal);
+            return;
+        }
+
+        try {
+            String json = objectMapper.writeValueAsString(CachedUser.from(principal));
+            Long written = redisTemplate.execute(PUT_SCRIPT,
+                    List.of(entryKey(principal.getId()), generationKey(principal.getId())),
+                    Long.toString(generation), json, Long.toString(redisTtl.toMillis()));
+            if (written == null || written == 0) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("User cache write failed for user {}: {}", principal.getId(), e.getMessage());
+        }
+        putLocal(principal);
+    }
+
+    /**
+     * Caches a principal in the local tier only, for loads that could not read the generation
+     * first because the id was not known yet.
+     */
+    public void putLocal(UserPrincipal principal) {
+        if (!enabled) {
+            return;
+        }
+
+        localById.put(principal.getId(), principal);
+        if (principal.getEmail() != null && principal.getPassword() != null) {
+            localByEmail.put(principal.getEmail(), principal);
+        }
+    }
+
+    /**
+     * Drops the user from every tier on every node. Call after roles, active flag or password change.
+     */
+    public void evict(Long id, String email) {
+        evictLocal(id, email);
+        try {
+            redisTemplate.execute(EVICT_SCRIPT, List.of(entryKey(id), generationKey(id)),
+                    Long.toString(redisTtl.toMillis()));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, id + ":" + (email != null ? email : ""));
+        } catch (Exception e) {
+            log.warn("User cache invalidation failed for user {}: {}", id, e.getMessage());
+        }
+    }
+
+    void onInvalidationMessage(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+
+        invalidations.increment();
+        Long id = Long.parseLong(message.substring(0, separator));
+        String email = message.substring(separator + 1);
+        evictLocal(id, email.isEmpty() ? null : email);
+    }
+
+    private void evictLocal(Long id, String email) {
+        UserPrincipal cached = localById.getIfPresent(id);
+        localById.invalidate(id);
+        if (email != null) {
+            localByEmail.invalidate(email);
+        }
+        if (cached != null && cached.getEmail() != null) {
+            localByEmail.invalidate(cached.getEmail());
+        }
+    }
+
+    // Both keys share a hash slot so the scripts work on a cluster
+    private static String entryKey(Long id) {
+        return "auth:user:{" + id + "}";
+    }
+
+    private static String generationKey(Long id) {
+        return "auth:user:{" + id + "}:generation";
+    }
+
+    private UserPrincipal readRedis(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            return json != null ? objectMapper.readValue(json, CachedUser.class).toPrincipal(roleRegistry) : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable user cache entry {}: {}", key, e.getMessage());
+            redisTemplate.delete(key);
+        } catch (Exception e) {
+            log.warn("User cache lookup failed for {}: {}", key, e.getMessage());
+        }
+        return null;
+    }
+
+    private void onRemoval(RemovalCause cause) {
+        if (cause.wasEvicted()) {
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.startup.auth.cache;
+
+import com.startup.auth.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached principals when the roles of a {@link User} change. Such changes only write
+ * {@code user_roles} and fire Hibernate collection events, not the entity callbacks that
+ * {@link UserCacheEvictionListener} receives. Rows written to {@code user_roles} with plain SQL
+ * still have to call {@link UserPrincipalCache#evict}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserRolesEvictionListener implements PostCollectionUpdateEventListener, PostCollectionRecreateEventListener {
+
+    private static final String ROLES_COLLECTION = User.class.getName() + ".roles";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserCacheEvictionListener userCacheEvictionListener;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onCollectionChanged(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onCollectionChanged(event);
+    }
+
+    // Eviction is deferred to commit, as for changes to the user row
+    private void onCollectionChanged(AbstractCollectionEvent event) {
+        if (ROLES_COLLECTION.equals(event.getCollection().getRole())
+                && event.getAffectedOwnerOrNull() instanceof User user) {
+            userCacheEvictionListener.onUserChanged(user);
+        }
+    }
+}
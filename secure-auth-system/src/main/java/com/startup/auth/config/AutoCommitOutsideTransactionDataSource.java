@@ -0,0 +1,39 @@
+package com.startup.auth.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The pool hands out connections with auto-commit off so that Hibernate can defer checking one
+ * out until a transaction runs its first statement. Outside a Spring transaction nothing would
+ * commit, and the pool rolls back on return, silently discarding any write. Connections borrowed
+ * outside a transaction are therefore switched to auto-commit; the pool restores its default
+ * when they are returned.
+ */
+public class AutoCommitOutsideTransactionDataSource extends DelegatingDataSource {
+
+    public AutoCommitOutsideTransactionDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return prepare(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return prepare(super.getConnection(username, password));
+    }
+
+    private static Connection prepare(Connection connection) throws SQLException {
+        if (!TransactionSynchronizationManager.isActualTransactionActive() && !connection.getAutoCommit()) {
+            connection.setAutoCommit(true);
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,27 @@
+package com.startup.auth.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Only transactions run with the pool's auto-commit=false, see AutoCommitOutsideTransactionDataSource
+    @Bean
+    @ConditionalOnProperty(name = "spring.datasource.hikari.auto-commit", havingValue = "false")
+    public static BeanPostProcessor autoCommitOutsideTransactionPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AutoCommitOutsideTransactionDataSource)) {
+                    return new AutoCommitOutsideTransactionDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
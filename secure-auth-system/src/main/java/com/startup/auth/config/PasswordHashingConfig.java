@@ -0,0 +1,27 @@
+package com.startup.auth.config;
+
+import com.startup.auth.security.BoundedPasswordEncoder;
+import com.startup.auth.security.PasswordHashingExecutor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    // Wraps whichever PasswordEncoder bean the security configuration defines
+    @Bean
+    public static BeanPostProcessor boundedPasswordEncoderPostProcessor(ObjectProvider<PasswordHashingExecutor> executor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PasswordEncoder encoder && !(bean instanceof BoundedPasswordEncoder)) {
+                    return new BoundedPasswordEncoder(encoder, executor.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.startup.auth.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+
+    // Shared pub/sub connection; subscribers register their own channels.
+    // Virtual threads are used only when enabled and the JVM has them (Java 21+).
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       Environment environment) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            container.setTaskExecutor(new VirtualThreadTaskExecutor("redis-listener-"));
+            container.setSubscriptionExecutor(new VirtualThreadTaskExecutor("redis-subscription-"));
+        }
+        return container;
+    }
+}
@@ -0,0 +1,71 @@
+package com.startup.auth.controller;
+
+import com.startup.auth.dto.request.LoginRequest;
+import com.startup.auth.dto.request.RefreshTokenRequest;
+import com.startup.auth.dto.request.RegisterRequest;
+import com.startup.auth.dto.response.ApiResponse;
+import com.startup.auth.dto.response.AuthResponse;
+import com.startup.auth.dto.response.MessageResponse;
+import com.startup.auth.service.AuthService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AuthService authService;
+
+    @PostMapping("/register")
+    public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("User registered successfully", authService.registerUser(request)));
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Login successful", authService.authenticateUser(request)));
+    }
+
+    @PostMapping("/refresh-token")
+    public ResponseEntity<ApiResponse<AuthResponse>> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed successfully", authService.refreshToken(request)));
+    }
+
+    /**
+     * Revokes the session of the given refresh token and denies the presented access token.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<MessageResponse> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                                  @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        String accessToken = authorization.startsWith(BEARER_PREFIX)
+                ? authorization.substring(BEARER_PREFIX.length())
+                : null;
+        authService.logout(request.getRefreshToken(), accessToken);
+        return ResponseEntity.ok(new MessageResponse(true, "User logged out successfully"));
+    }
+
+    @GetMapping("/health")
+    public ResponseEntity<ApiResponse<String>> health() {
+        return ResponseEntity.ok(ApiResponse.success("Authentication service is running", "OK"));
+    }
+
+    // Wrong credentials or a disabled account on login; other 401s come from AuthEntryPointJwt
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<MessageResponse> handleAuthenticationFailure(AuthenticationException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse(false, "Invalid email or password"));
+    }
+}
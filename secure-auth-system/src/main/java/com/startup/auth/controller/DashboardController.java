@@ -0,0 +1,45 @@
+package com.startup.auth.controller;
+
+import com.startup.auth.counters.AuthCounters;
+import com.startup.auth.dto.response.DashboardStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Dashboard figures served from {@link AuthCounters}; they may lag the database by up to one
+ * reconcile interval.
+ */
+@RestController
+@RequestMapping("/admin/stats")
+@PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private static final int MAX_SIGNUP_HOURS = 24 * 30;
+
+    private final AuthCounters authCounters;
+
+    @GetMapping
+    public ResponseEntity<DashboardStats> stats(@RequestParam(defaultValue = "24") int signupHours) {
+        Map<String, Long> sessionsByDevice = authCounters.activeSessionsByDevice();
+        return ResponseEntity.ok(DashboardStats.builder()
+                .activeUsers(authCounters.activeUsers())
+                .signupsByHour(authCounters.signupsByHour(Math.max(1, Math.min(signupHours, MAX_SIGNUP_HOURS))))
+                .activeSessions(sessionsByDevice.values().stream().mapToLong(Long::longValue).sum())
+                .activeSessionsByDevice(sessionsByDevice)
+                .build());
+    }
+
+    @GetMapping("/users/{userId}/sessions")
+    public ResponseEntity<Map<String, Long>> activeSessionsOf(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("activeSessions", authCounters.activeSessionsOf(userId)));
+    }
+}
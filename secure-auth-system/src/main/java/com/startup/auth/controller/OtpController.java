@@ -0,0 +1,39 @@
+package com.startup.auth.controller;
+
+import com.startup.auth.dto.request.SendOtpRequest;
+import com.startup.auth.dto.request.VerifyOtpRequest;
+import com.startup.auth.dto.response.ApiResponse;
+import com.startup.auth.dto.response.AuthResponse;
+import com.startup.auth.dto.response.MessageResponse;
+import com.startup.auth.otp.OtpService;
+import com.startup.auth.service.AuthService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+public class OtpController {
+
+    private final OtpService otpService;
+    private final AuthService authService;
+
+    /**
+     * Returns once the code is stored and the SMS is queued; delivery happens in the background.
+     */
+    @PostMapping("/send-otp")
+    public ResponseEntity<MessageResponse> sendOtp(@Valid @RequestBody SendOtpRequest request) {
+        otpService.sendOtp(request.getPhoneNumber().trim());
+        return ResponseEntity.ok(new MessageResponse(true, "OTP sent successfully"));
+    }
+
+    @PostMapping("/verify-otp")
+    public ResponseEntity<ApiResponse<AuthResponse>> verifyOtp(@Valid @RequestBody VerifyOtpRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Login successful", authService.authenticateWithOtp(request)));
+    }
+}
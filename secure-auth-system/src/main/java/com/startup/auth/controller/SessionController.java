@@ -0,0 +1,38 @@
+package com.startup.auth.controller;
+
+import com.startup.auth.dto.response.ActiveSessionResponse;
+import com.startup.auth.security.UserPrincipal;
+import com.startup.auth.service.SessionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/sessions")
+@RequiredArgsConstructor
+public class SessionController {
+
+    private final SessionService sessionService;
+
+    /**
+     * The caller's signed-in devices, most recently used first. Served from the Redis session index.
+     */
+    @GetMapping
+    public ResponseEntity<List<ActiveSessionResponse>> mySessions(@AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(sessionService.listActiveSessions(principal.getId()).stream()
+                .map(session -> ActiveSessionResponse.builder()
+                        .id(session.publicId())
+                        .deviceType(session.deviceType() != null ? session.deviceType().name() : null)
+                        .deviceInfo(session.deviceInfo())
+                        .createdAt(session.createdAt())
+                        .lastUsedAt(session.lastUsedAt())
+                        .expiresAt(session.expiresAt())
+                        .build())
+                .toList());
+    }
+}
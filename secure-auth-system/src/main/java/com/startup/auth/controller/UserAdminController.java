@@ -0,0 +1,79 @@
+package com.startup.auth.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.startup.auth.dto.response.UserPage;
+import com.startup.auth.service.UserQueryService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/admin/users")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class UserAdminController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserQueryService userQueryService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/by-role/{role}")
+    public ResponseEntity<UserPage> byRole(@PathVariable String role,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "" + UserQueryService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(userQueryService.findByRole(role, cursor, limit));
+    }
+
+    @GetMapping("/by-status")
+    public ResponseEntity<UserPage> byStatus(@RequestParam boolean active,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "" + UserQueryService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(userQueryService.findByActive(active, cursor, limit));
+    }
+
+    @GetMapping("/by-last-login")
+    public ResponseEntity<UserPage> byLastLogin(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + UserQueryService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(userQueryService.findByLastLogin(from, to, cursor, limit));
+    }
+
+    /**
+     * Streams every matching user as one JSON line, written as rows are read. Writes go straight to
+     * the output stream, so a client that disconnects aborts the export instead of it running to the end.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void export(@RequestParam(required = false) String role,
+                       @RequestParam(required = false) Boolean active,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ServletOutputStream out = response.getOutputStream();
+
+        userQueryService.export(role, active, user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+}
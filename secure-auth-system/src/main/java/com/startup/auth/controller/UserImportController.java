@@ -0,0 +1,77 @@
+package com.startup.auth.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.startup.auth.dto.response.ImportRowResult;
+import com.startup.auth.security.UserPrincipal;
+import com.startup.auth.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+public class UserImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String TEXT_CSV = "text/csv";
+    // Agents may onboard these roles only; any other role, such as AGENT or ADMIN, needs an administrator
+    private static final Set<String> AGENT_ASSIGNABLE_ROLES = Set.of("CUSTOMER", "VENDOR");
+
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Streams one JSON result per input row back as each chunk is committed.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, NDJSON}, produces = NDJSON)
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public void importUsers(@RequestParam(defaultValue = "CUSTOMER") String role,
+                            @AuthenticationPrincipal UserPrincipal principal,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        if (!AGENT_ASSIGNABLE_ROLES.contains(role) && !isAdmin(principal)) {
+            throw new AccessDeniedException("Only administrators can import users with role " + role);
+        }
+
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        PrintWriter writer = response.getWriter();
+
+        userImportService.importUsers(request.getInputStream(), format, role, results -> {
+            try {
+                for (ImportRowResult result : results) {
+                    writer.write(objectMapper.writeValueAsString(result));
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            writer.flush();
+        });
+    }
+
+    private static boolean isAdmin(UserPrincipal principal) {
+        return principal != null && principal.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
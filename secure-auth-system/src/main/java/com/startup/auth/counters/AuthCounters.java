@@ -0,0 +1,191 @@
+package com.startup.auth.counters;
+
+import com.startup.auth.entity.Session;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard figures kept in Redis and updated as users register and sessions open and close,
+ * so reading them never runs a COUNT over users or sessions. Each node coalesces its changes in
+ * memory and applies them in one pipeline per flush interval. Session expiry and direct database
+ * changes are not seen as events; {@link CounterReconciler} resets the figures from Postgres.
+ */
+@Component
+@Slf4j
+public class AuthCounters {
+
+    static final String ACTIVE_USERS_KEY = "auth:counters:users:active";
+    static final String SIGNUPS_KEY_PREFIX = "auth:counters:signups:";
+    static final String SESSIONS_BY_USER_KEY = "auth:counters:sessions:by-user";
+    static final String SESSIONS_BY_DEVICE_KEY = "auth:counters:sessions:by-device";
+    static final String UNKNOWN_DEVICE = "UNKNOWN";
+
+    static final DateTimeFormatter HOUR_BUCKET = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration signupRetention;
+
+    private final AtomicLong activeUsersDelta = new AtomicLong();
+    private final Map<String, Long> signupDeltas = new ConcurrentHashMap<>();
+    private final Map<String, Long> deviceDeltas = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userSessionDeltas = new ConcurrentHashMap<>();
+    private final Set<Long> clearedUsers = ConcurrentHashMap.newKeySet();
+
+    public AuthCounters(StringRedisTemplate redisTemplate,
+                        @Value("${app.counters.signup-retention-days:30}") int signupRetentionDays) {
+        this.redisTemplate = redisTemplate;
+        this.signupRetention = Duration.ofDays(signupRetentionDays);
+    }
+
+    public void usersCreated(int count, LocalDateTime createdAt) {
+        if (count <= 0) {
+            return;
+        }
+        activeUsersDelta.addAndGet(count);
+        signupDeltas.merge(HOUR_BUCKET.format(createdAt), (long) count, Long::sum);
+    }
+
+    public void sessionOpened(Long userId, Session.DeviceType deviceType) {
+        userSessionDeltas.merge(userId, 1L, Long::sum);
+        deviceDeltas.merge(deviceField(deviceType), 1L, Long::sum);
+    }
+
+    public void sessionClosed(Long userId, Session.DeviceType deviceType) {
+        userSessionDeltas.merge(userId, -1L, Long::sum);
+        deviceDeltas.merge(deviceField(deviceType), -1L, Long::sum);
+    }
+
+    /**
+     * All sessions of a user were revoked. The per-user figure is cleared; the per-device
+     * figures are not known per user and are corrected at the next reconcile.
+     */
+    public void allSessionsClosed(Long userId) {
+        userSessionDeltas.remove(userId);
+        clearedUsers.add(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms:1000}")
+    public void flush() {
+        long users = activeUsersDelta.getAndSet(0);
+        Map<String, Long> signups = drain(signupDeltas);
+        Map<String, Long> devices = drain(deviceDeltas);
+        List<Long> cleared = new ArrayList<>();
+        for (Long userId : clearedUsers) {
+            if (clearedUsers.remove(userId)) {
+                cleared.add(userId);
+            }
+        }
+        Map<Long, Long> userSessions = drain(userSessionDeltas);
+        if (users == 0 && signups.isEmpty() && devices.isEmpty() && cleared.isEmpty() && userSessions.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    if (users != 0) {
+                        ops.opsForValue().increment(ACTIVE_USERS_KEY, users);
+                    }
+                    signups.forEach((bucket, delta) -> {
+                        ops.opsForValue().increment(SIGNUPS_KEY_PREFIX + bucket, delta);
+                        ops.expire(SIGNUPS_KEY_PREFIX + bucket, signupRetention);
+                    });
+                    devices.forEach((device, delta) -> ops.opsForHash().increment(SESSIONS_BY_DEVICE_KEY, device, delta));
+                    if (!cleared.isEmpty()) {
+                        ops.opsForHash().delete(SESSIONS_BY_USER_KEY, cleared.stream().map(String::valueOf).toArray());
+                    }
+                    userSessions.forEach((userId, delta) ->
+                            ops.opsForHash().increment(SESSIONS_BY_USER_KEY, userId.toString(), delta));
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // Lost deltas are restored by the next reconcile
+            log.warn("Could not flush dashboard counters: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public long activeUsers() {
+        return parse(redisTemplate.opsForValue().get(ACTIVE_USERS_KEY));
+    }
+
+    /**
+     * Signups per hour for the last {@code hours} hours, oldest first, keyed by the start of the hour.
+     */
+    public Map<LocalDateTime, Long> signupsByHour(int hours) {
+        LocalDateTime current = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        List<LocalDateTime> buckets = new ArrayList<>(hours);
+        for (int i = hours - 1; i >= 0; i--) {
+            buckets.add(current.minusHours(i));
+        }
+
+        List<String> values = redisTemplate.opsForValue().multiGet(
+                buckets.stream().map(bucket -> SIGNUPS_KEY_PREFIX + HOUR_BUCKET.format(bucket)).toList());
+        Map<LocalDateTime, Long> signups = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            signups.put(buckets.get(i), values != null ? parse(values.get(i)) : 0L);
+        }
+        return signups;
+    }
+
+    public Map<String, Long> activeSessionsByDevice() {
+        Map<String, Long> sessions = new LinkedHashMap<>();
+        Map<Object, Object> stored = redisTemplate.opsForHash().entries(SESSIONS_BY_DEVICE_KEY);
+        for (Session.DeviceType deviceType : Session.DeviceType.values()) {
+            sessions.put(deviceType.name(), parse((String) stored.get(deviceType.name())));
+        }
+        sessions.put(UNKNOWN_DEVICE, parse((String) stored.get(UNKNOWN_DEVICE)));
+        return sessions;
+    }
+
+    public long activeSessionsOf(Long userId) {
+        return parse((String) redisTemplate.opsForHash().get(SESSIONS_BY_USER_KEY, userId.toString()));
+    }
+
+    static String deviceField(Session.DeviceType deviceType) {
+        return deviceType != null ? deviceType.name() : UNKNOWN_DEVICE;
+    }
+
+    // Figures can dip below zero between a missed open and the next reconcile
+    private static long parse(String value) {
+        return value != null ? Math.max(0, Long.parseLong(value)) : 0;
+    }
+
+    // Removes each entry only if it was not changed meanwhile, so no concurrent delta is lost
+    private static <K> Map<K, Long> drain(Map<K, Long> pending) {
+        Map<K, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<K, Long> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue()) && entry.getValue() != 0) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,160 @@
+package com.startup.auth.counters;
+
+import com.startup.auth.session.SessionsReapedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resets the {@link AuthCounters} figures from Postgres, on a fixed interval and after each
+ * session reaper run. One node reconciles at a time. Changes flushed by other nodes while a
+ * reconcile runs may be counted twice or not at all until the next one.
+ */
+@Component
+@Slf4j
+public class CounterReconciler {
+
+    private static final String LOCK_KEY = "auth:counters:reconcile-lock";
+    private static final String SESSIONS_BY_USER_REBUILD_KEY = AuthCounters.SESSIONS_BY_USER_KEY + ":rebuild";
+    private static final int USER_CHUNK_SIZE = 1000;
+
+    private static final String ACTIVE_USERS_SQL = "SELECT COUNT(*) FROM users WHERE is_active = true";
+    private static final String SIGNUPS_SQL =
+            "SELECT date_trunc('hour', created_at) AS bucket, COUNT(*) AS signups " +
+            "FROM users WHERE created_at >= ? GROUP BY bucket";
+    private static final String SESSIONS_BY_DEVICE_SQL =
+            "SELECT device_type, COUNT(*) AS sessions FROM sessions " +
+            "WHERE revoked = false AND expires_at > ? GROUP BY device_type";
+    private static final String SESSIONS_BY_USER_SQL =
+            "SELECT user_id, COUNT(*) AS sessions FROM sessions " +
+            "WHERE revoked = false AND expires_at > ? GROUP BY user_id";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int signupRetentionDays;
+    private final Duration lockTtl;
+
+    public CounterReconciler(StringRedisTemplate redisTemplate,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.counters.signup-retention-days:30}") int signupRetentionDays,
+                             @Value("${app.counters.reconcile-interval-ms:300000}") long reconcileIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.signupRetentionDays = signupRetentionDays;
+        this.lockTtl = Duration.ofMillis(reconcileIntervalMs / 2);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", lockTtl))) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            reconcileUsers();
+            reconcileSessions();
+            log.info("Reconciled dashboard counters in {} ms", System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Could not reconcile dashboard counters: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onSessionsReaped(SessionsReapedEvent event) {
+        reconcile();
+    }
+
+    private void reconcileUsers() {
+        LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusDays(signupRetentionDays);
+        Map<String, Long> signups = new HashMap<>();
+        Long activeUsers = readOnlyTransaction.execute(status -> {
+            jdbcTemplate.query(SIGNUPS_SQL, (RowCallbackHandler) rs -> signups.put(
+                    AuthCounters.HOUR_BUCKET.format(rs.getTimestamp("bucket").toLocalDateTime()), rs.getLong("signups")),
+                    Timestamp.valueOf(since));
+            return jdbcTemplate.queryForObject(ACTIVE_USERS_SQL, Long.class);
+        });
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForValue().set(AuthCounters.ACTIVE_USERS_KEY, String.valueOf(activeUsers));
+                signups.forEach((bucket, count) -> ops.opsForValue().set(
+                        AuthCounters.SIGNUPS_KEY_PREFIX + bucket, String.valueOf(count), Duration.ofDays(signupRetentionDays)));
+                return null;
+            }
+        });
+    }
+
+    // Per-user figures are rebuilt into a side key in chunks and swapped in with RENAME
+    private void reconcileSessions() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<String, String> byDevice = new HashMap<>();
+        Map<String, String> chunk = new HashMap<>();
+        redisTemplate.delete(SESSIONS_BY_USER_REBUILD_KEY);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.query(SESSIONS_BY_DEVICE_SQL, (RowCallbackHandler) rs -> {
+                String deviceType = rs.getString("device_type");
+                byDevice.put(deviceType != null ? deviceType : AuthCounters.UNKNOWN_DEVICE, String.valueOf(rs.getLong("sessions")));
+            }, now);
+
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SESSIONS_BY_USER_SQL);
+                statement.setFetchSize(USER_CHUNK_SIZE);
+                statement.setTimestamp(1, now);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                chunk.put(rs.getString("user_id"), String.valueOf(rs.getLong("sessions")));
+                if (chunk.size() == USER_CHUNK_SIZE) {
+                    redisTemplate.opsForHash().putAll(SESSIONS_BY_USER_REBUILD_KEY, chunk);
+                    chunk.clear();
+                }
+            });
+        });
+        if (!chunk.isEmpty()) {
+            redisTemplate.opsForHash().putAll(SESSIONS_BY_USER_REBUILD_KEY, chunk);
+        }
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.delete(AuthCounters.SESSIONS_BY_DEVICE_KEY);
+                if (!byDevice.isEmpty()) {
+                    ops.opsForHash().putAll(AuthCounters.SESSIONS_BY_DEVICE_KEY, byDevice);
+                }
+                return null;
+            }
+        });
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(SESSIONS_BY_USER_REBUILD_KEY))) {
+            redisTemplate.rename(SESSIONS_BY_USER_REBUILD_KEY, AuthCounters.SESSIONS_BY_USER_KEY);
+        } else {
+            redisTemplate.delete(AuthCounters.SESSIONS_BY_USER_KEY);
+        }
+    }
+}
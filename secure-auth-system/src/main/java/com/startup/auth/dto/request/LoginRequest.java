@@ -14,5 +14,7 @@ public class LoginRequest {
     @NotBlank(message = "Password is required")
     private String password;
 
+    private String deviceId;
+
     private String deviceInfo;
 }
\ No newline at end of file
@@ -18,5 +18,7 @@ public class RegisterRequest {
 
     private String phone;
 
+    private String deviceId;
+
     private String deviceInfo;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.startup.auth.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class SendOtpRequest {
+
+    @NotBlank(message = "Phone number is required")
+    private String phoneNumber;
+}
@@ -0,0 +1,20 @@
+package com.startup.auth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardStats {
+    private long activeUsers;
+    private Map<LocalDateTime, Long> signupsByHour;
+    private long activeSessions;
+    private Map<String, Long> activeSessionsByDevice;
+}
@@ -0,0 +1,32 @@
+package com.startup.auth.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRowResult {
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    private long line;
+    private Status status;
+    private Long userId;
+    private String error;
+
+    public static ImportRowResult created(long line, Long userId) {
+        return new ImportRowResult(line, Status.CREATED, userId, null);
+    }
+
+    public static ImportRowResult failed(long line, String error) {
+        return new ImportRowResult(line, Status.FAILED, null, error);
+    }
+}
@@ -1,5 +1,6 @@
 package com.startup.auth.entity;
 
+import com.startup.auth.security.RoleChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -16,7 +17,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, RoleChangeListener.class})
 public class Role {
 
     @Id
@@ -25,12 +25,23 @@ public class Session {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(name = "refresh_token", nullable = false, unique = true)
+    // Read-only mirror of user_id so the owner is known without touching the association
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long userId;
+
+    // Legacy JWT refresh tokens only; opaque tokens are stored as refreshTokenHash
+    @Column(name = "refresh_token", unique = true, length = 500)
     private String refreshToken;
 
+    @Column(name = "refresh_token_hash", unique = true, length = 32)
+    private byte[] refreshTokenHash;
+
     @Column(name = "firebase_token")
     private String firebaseToken;
 
+    @Column(name = "device_id")
+    private String deviceId;
+
     @Column(name = "device_info")
     private String deviceInfo;
 
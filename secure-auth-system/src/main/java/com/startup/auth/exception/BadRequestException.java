@@ -0,0 +1,20 @@
+package com.startup.auth.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+/**
+ * Rejects a request the client has to correct; rendered as 400.
+ */
+public class BadRequestException extends ErrorResponseException {
+
+    public BadRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, message), null);
+    }
+
+    @Override
+    public String getMessage() {
+        return getBody().getDetail();
+    }
+}
@@ -0,0 +1,28 @@
+package com.startup.auth.metrics;
+
+/**
+ * Timed stages of the register, login, OTP and refresh flows, reported as the {@code stage} tag.
+ */
+public enum AuthStage {
+
+    CREDENTIAL_VERIFICATION("credential_verification"),
+    OTP_VERIFICATION("otp_verification"),
+    PASSWORD_HASHING("password_hashing"),
+    USER_LOAD("user_load"),
+    USER_INSERT("user_insert"),
+    TOKEN_SIGNING("token_signing"),
+    SESSION_INSERT("session_insert"),
+    SESSION_TOUCH("session_touch"),
+    LAST_LOGIN("last_login"),
+    REFRESH_LOOKUP("refresh_lookup");
+
+    private final String tag;
+
+    AuthStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,55 @@
+package com.startup.auth.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Durations collected on the current request thread, opened and closed by {@link ServerTimingFilter}.
+ * Work outside a request, such as scheduled flushes, is not collected.
+ */
+public final class RequestTimings {
+
+    public static final String DB_CONNECTION_HOLD = "db_connection_hold";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Long> nanosByName = new LinkedHashMap<>();
+
+    private RequestTimings() {
+    }
+
+    static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void add(String name, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.nanosByName.merge(name, nanos, Long::sum);
+        }
+    }
+
+    long nanos(String name) {
+        return nanosByName.getOrDefault(name, 0L);
+    }
+
+    // e.g. "credential_verification;dur=84.12, token_signing;dur=0.31"
+    String toServerTimingHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Long> entry : nanosByName.entrySet()) {
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            header.append(entry.getKey()).append(";dur=")
+                    .append(String.format(Locale.ROOT, "%.2f", entry.getValue() / 1_000_000.0));
+        }
+        return header.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.startup.auth.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Collects {@link RequestTimings} for every request and records the total connection hold time
+ * per request. With {@code app.observability.server-timing.enabled} the breakdown is also
+ * returned in a {@code Server-Timing} header, which requires buffering the response body.
+ * Streaming endpoints are never buffered and get no header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+    // NDJSON streams of unbounded length; buffering would hold the whole body in memory
+    private static final Set<String> STREAMING_PATHS = Set.of("/admin/users/export", "/admin/users/import");
+
+    private final DistributionSummary connectionHoldPerRequest;
+    private final boolean headerEnabled;
+
+    public ServerTimingFilter(MeterRegistry meterRegistry,
+                              @Value("${app.observability.server-timing.enabled:false}") boolean headerEnabled) {
+        this.connectionHoldPerRequest = DistributionSummary.builder("auth.request.db_connection_hold")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.headerEnabled = headerEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.begin();
+        ContentCachingResponseWrapper bufferedResponse = headerEnabled && !STREAMING_PATHS.contains(request.getServletPath())
+                ? new ContentCachingResponseWrapper(response)
+                : null;
+        try {
+            filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+        } finally {
+            RequestTimings.end();
+            long holdNanos = timings.nanos(RequestTimings.DB_CONNECTION_HOLD);
+            if (holdNanos > 0) {
+                connectionHoldPerRequest.record(holdNanos / 1_000_000.0);
+            }
+            if (bufferedResponse != null) {
+                String header = timings.toServerTimingHeader();
+                if (!header.isEmpty()) {
+                    bufferedResponse.setHeader(SERVER_TIMING_HEADER, header);
+                }
+                bufferedResponse.copyBodyToResponse();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.startup.auth.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times {@link AuthStage}s into the {@code auth.stage} timer, tagged by stage and outcome, and
+ * into the current request's {@link RequestTimings}.
+ */
+@Component
+public class StageTimer {
+
+    private final Map<AuthStage, Timer> successTimers = new EnumMap<>(AuthStage.class);
+    private final Map<AuthStage, Timer> errorTimers = new EnumMap<>(AuthStage.class);
+
+    public StageTimer(MeterRegistry meterRegistry) {
+        for (AuthStage stage : AuthStage.values()) {
+            successTimers.put(stage, timer(meterRegistry, stage, "success"));
+            errorTimers.put(stage, timer(meterRegistry, stage, "error"));
+        }
+    }
+
+    public <T> T record(AuthStage stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            stop(stage, start, success);
+        }
+    }
+
+    public void record(AuthStage stage, Runnable work) {
+        record(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void stop(AuthStage stage, long start, boolean success) {
+        long nanos = System.nanoTime() - start;
+        (success ? successTimers : errorTimers).get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        RequestTimings.add(stage.tag(), nanos);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, AuthStage stage, String outcome) {
+        return Timer.builder("auth.stage")
+                .tag("stage", stage.tag())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
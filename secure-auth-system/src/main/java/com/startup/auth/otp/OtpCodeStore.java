@@ -0,0 +1,83 @@
+package com.startup.auth.otp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Pending OTP codes in Redis, one hash per phone number holding an HMAC of the code and the
+ * number of verification attempts. A new code replaces the previous one; a code is deleted
+ * once it is verified or its attempts are used up, and expires after its TTL.
+ */
+@Component
+public class OtpCodeStore {
+
+    private static final String KEY_PREFIX = "auth:otp:";
+
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "redis.call('HSET', KEYS[1], 'hash', ARGV[1], 'attempts', 0) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1",
+            Long.class);
+
+    // 1 = verified, 0 = wrong code, -1 = no pending code, -2 = attempts used up
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(
+            "local stored = redis.call('HGET', KEYS[1], 'hash') "
+                    + "if not stored then return -1 end "
+                    + "local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1) "
+                    + "if attempts > tonumber(ARGV[2]) then redis.call('DEL', KEYS[1]) return -2 end "
+                    + "if stored == ARGV[1] then redis.call('DEL', KEYS[1]) return 1 end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final SecretKeySpec hmacKey;
+    private final Duration ttl;
+    private final int maxAttempts;
+
+    public OtpCodeStore(StringRedisTemplate redisTemplate,
+                        @Value("${app.otp.hash-secret:${app.jwt.secret}}") String hashSecret,
+                        @Value("${app.otp.ttl:5m}") Duration ttl,
+                        @Value("${app.otp.max-attempts:5}") int maxAttempts) {
+        this.redisTemplate = redisTemplate;
+        this.hmacKey = new SecretKeySpec(hashSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public void save(String phoneNumber, String code) {
+        redisTemplate.execute(SAVE_SCRIPT, List.of(KEY_PREFIX + phoneNumber),
+                hash(phoneNumber, code), Long.toString(ttl.toMillis()));
+    }
+
+    public boolean verify(String phoneNumber, String code) {
+        Long result = redisTemplate.execute(VERIFY_SCRIPT, List.of(KEY_PREFIX + phoneNumber),
+                hash(phoneNumber, code), Integer.toString(maxAttempts));
+        return result != null && result == 1L;
+    }
+
+    private String hash(String phoneNumber, String code) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            return HexFormat.of().formatHex(mac.doFinal((phoneNumber + ":" + code).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.startup.auth.otp;
+
+import com.startup.auth.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends OTP messages off the request thread through a bounded queue and a fixed worker pool.
+ * Failed sends are retried with exponential backoff until they succeed, run out of attempts,
+ * or the code they carry has expired. A full queue fails the request fast with 503.
+ */
+@Component
+@Slf4j
+public class OtpDispatcher {
+
+    private final OtpSender sender;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long retryAfterSeconds;
+
+    private final Timer sendTimer;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public OtpDispatcher(OtpSender sender,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.otp.dispatch.threads:4}") int threads,
+                         @Value("${app.otp.dispatch.queue-capacity:1000}") int queueCapacity,
+                         @Value("${app.otp.dispatch.max-attempts:3}") int maxAttempts,
+                         @Value("${app.otp.dispatch.initial-backoff-ms:500}") long initialBackoffMs,
+                         @Value("${app.otp.dispatch.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.sender = sender;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "otp-dispatch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-dispatch-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.sendTimer = meterRegistry.timer("auth.otp.send");
+        this.sent = meterRegistry.counter("auth.otp.sent");
+        this.failed = meterRegistry.counter("auth.otp.failed");
+        this.rejected = meterRegistry.counter("auth.otp.rejected");
+        meterRegistry.gauge("auth.otp.queue_depth", executor, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Queues a message and returns immediately. Messages still unsent at {@code deadlineMillis}
+     * are dropped.
+     */
+    public void dispatch(String phoneNumber, String message, long deadlineMillis) {
+        try {
+            executor.execute(() -> attempt(new Delivery(phoneNumber, message, deadlineMillis), 1));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many OTP requests, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    private void attempt(Delivery delivery, int attempt) {
+        if (System.currentTimeMillis() >= delivery.deadlineMillis()) {
+            failed.increment();
+            log.warn("Dropping OTP for {}: code expired before it could be sent", delivery.phoneNumber());
+            return;
+        }
+        try {
+            sendTimer.record(() -> sender.send(delivery.phoneNumber(), delivery.message()));
+            sent.increment();
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                failed.increment();
+                log.error("Failed to send OTP to {} after {} attempts: {}", delivery.phoneNumber(), attempt, e.getMessage());
+                return;
+            }
+            long backoffMs = initialBackoffMs << (attempt - 1);
+            log.warn("Failed to send OTP to {} (attempt {}), retrying in {} ms: {}",
+                    delivery.phoneNumber(), attempt, backoffMs, e.getMessage());
+            retryScheduler.schedule(() -> retry(delivery, attempt + 1), backoffMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void retry(Delivery delivery, int attempt) {
+        try {
+            executor.execute(() -> attempt(delivery, attempt));
+        } catch (RejectedExecutionException e) {
+            failed.increment();
+            log.error("Dropping OTP retry for {}: dispatch queue is full", delivery.phoneNumber());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private record Delivery(String phoneNumber, String message, long deadlineMillis) {
+    }
+}
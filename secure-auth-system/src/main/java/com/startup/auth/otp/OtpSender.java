@@ -0,0 +1,10 @@
+package com.startup.auth.otp;
+
+/**
+ * Delivers an OTP message to a phone number. Implementations may block; they are only called
+ * from the {@link OtpDispatcher} workers. A thrown exception marks the attempt as failed.
+ */
+public interface OtpSender {
+
+    void send(String phoneNumber, String message);
+}
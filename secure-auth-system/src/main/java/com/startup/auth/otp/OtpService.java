@@ -0,0 +1,71 @@
+package com.startup.auth.otp;
+
+import com.startup.auth.ratelimit.ClientAddress;
+import com.startup.auth.ratelimit.RateLimiter;
+import com.startup.auth.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+
+/**
+ * Issues and verifies one-time login codes. Sending only stores the code and queues the SMS,
+ * so the request does not wait on the SMS provider.
+ */
+@Service
+@Slf4j
+public class OtpService {
+
+    private static final int CODE_LENGTH = 6;
+
+    private final OtpCodeStore codeStore;
+    private final OtpDispatcher dispatcher;
+    private final RateLimiter rateLimiter;
+    private final UserRepository userRepository;
+    private final String messageTemplate;
+    private final SecureRandom random = new SecureRandom();
+
+    public OtpService(OtpCodeStore codeStore,
+                      OtpDispatcher dispatcher,
+                      RateLimiter rateLimiter,
+                      UserRepository userRepository,
+                      @Value("${app.otp.message:Your verification code is %s. It expires in %d minutes.}") String messageTemplate) {
+        this.codeStore = codeStore;
+        this.dispatcher = dispatcher;
+        this.rateLimiter = rateLimiter;
+        this.userRepository = userRepository;
+        this.messageTemplate = messageTemplate;
+    }
+
+    /**
+     * Sends a code if the number belongs to an active user. Callers get the same outcome either
+     * way, so the endpoint does not reveal which numbers are registered.
+     */
+    public void sendOtp(String phoneNumber) {
+        rateLimiter.checkOtpRequest(phoneNumber, ClientAddress.current());
+
+        if (!userRepository.existsByPhoneAndIsActiveTrue(phoneNumber)) {
+            log.debug("OTP requested for unknown or inactive phone number");
+            return;
+        }
+
+        String code = generateCode();
+        codeStore.save(phoneNumber, code);
+        dispatcher.dispatch(phoneNumber,
+                String.format(messageTemplate, code, codeStore.ttl().toMinutes()),
+                System.currentTimeMillis() + codeStore.ttl().toMillis());
+    }
+
+    public boolean verifyOtp(String phoneNumber, String code) {
+        return code != null && codeStore.verify(phoneNumber, code);
+    }
+
+    private String generateCode() {
+        StringBuilder code = new StringBuilder(CODE_LENGTH);
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code.append(random.nextInt(10));
+        }
+        return code.toString();
+    }
+}
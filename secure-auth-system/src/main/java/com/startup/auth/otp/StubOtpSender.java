@@ -0,0 +1,46 @@
+package com.startup.auth.otp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local sender for development, tests and load tests: keeps the last message per phone number
+ * instead of sending it. {@code app.otp.stub.latency-ms} simulates a slow SMS provider.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.sender", havingValue = "stub")
+@Slf4j
+public class StubOtpSender implements OtpSender {
+
+    private final long latencyMs;
+    private final Map<String, String> lastMessages = new ConcurrentHashMap<>();
+
+    public StubOtpSender(@Value("${app.otp.stub.latency-ms:0}") long latencyMs) {
+        this.latencyMs = latencyMs;
+        log.warn("OTP messages are not sent; using the stub sender");
+    }
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending OTP", e);
+            }
+        }
+        lastMessages.put(phoneNumber, message);
+        log.debug("OTP message for {}: {}", phoneNumber, message);
+    }
+
+    public Optional<String> lastMessage(String phoneNumber) {
+        return Optional.ofNullable(lastMessages.get(phoneNumber));
+    }
+}
@@ -0,0 +1,27 @@
+package com.startup.auth.otp;
+
+import com.twilio.Twilio;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.otp.sender", havingValue = "twilio", matchIfMissing = true)
+public class TwilioOtpSender implements OtpSender {
+
+    private final PhoneNumber from;
+
+    public TwilioOtpSender(@Value("${twilio.account-sid}") String accountSid,
+                           @Value("${twilio.auth-token}") String authToken,
+                           @Value("${twilio.phone-number}") String phoneNumber) {
+        Twilio.init(accountSid, authToken);
+        this.from = new PhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        Message.creator(new PhoneNumber(phoneNumber), from, message).create();
+    }
+}
@@ -0,0 +1,23 @@
+package com.startup.auth.ratelimit;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Remote address of the request being handled on this thread. Behind a proxy this relies on
+ * {@code server.forward-headers-strategy} to resolve the client address.
+ */
+public final class ClientAddress {
+
+    private ClientAddress() {
+    }
+
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.startup.auth.ratelimit;
+
+import com.startup.auth.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Rate limits for login and OTP requests, checked before any password hashing or database work.
+ * Limits are configured under {@code app.rate-limit.<rule>.limit} and {@code .window}.
+ */
+@Component
+public class RateLimiter {
+
+    private final SlidingWindowLimiter loginPerIp;
+    private final SlidingWindowLimiter loginFailuresPerEmail;
+    private final SlidingWindowLimiter otpPerPhone;
+    private final SlidingWindowLimiter otpPerIp;
+    private final List<SlidingWindowLimiter> limiters;
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimiter(Environment environment,
+                       StringRedisTemplate redisTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        String nodeId = UUID.randomUUID().toString();
+        this.loginPerIp = rule(environment, "login-per-ip", 30, "1m", maxKeys, redisTemplate, nodeId);
+        this.loginFailuresPerEmail = rule(environment, "login-failures-per-email", 5, "1h", maxKeys, redisTemplate, nodeId);
+        this.otpPerPhone = rule(environment, "otp-per-phone", 3, "15m", maxKeys, redisTemplate, nodeId);
+        this.otpPerIp = rule(environment, "otp-per-ip", 10, "15m", maxKeys, redisTemplate, nodeId);
+        this.limiters = List.of(loginPerIp, loginFailuresPerEmail, otpPerPhone, otpPerIp);
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Counts a login attempt against the client address and rejects it if that address, or the
+     * email after too many failures, is over its limit.
+     */
+    public void checkLogin(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        if (StringUtils.hasText(email) && loginFailuresPerEmail.isExceeded(normalize(email))) {
+            reject(loginFailuresPerEmail, "Too many failed login attempts, try again later");
+        }
+        if (clientIp != null && !loginPerIp.tryAcquire(clientIp)) {
+            reject(loginPerIp, "Too many login attempts, try again later");
+        }
+    }
+
+    public void recordLoginFailure(String email) {
+        if (enabled && StringUtils.hasText(email)) {
+            loginFailuresPerEmail.record(normalize(email));
+        }
+    }
+
+    public void checkOtpRequest(String phone, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        if (clientIp != null && !otpPerIp.tryAcquire(clientIp)) {
+            reject(otpPerIp, "Too many OTP requests, try again later");
+        }
+        if (StringUtils.hasText(phone) && !otpPerPhone.tryAcquire(phone.trim())) {
+            reject(otpPerPhone, "Too many OTP requests for this phone number, try again later");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.reconcile-interval-ms:1000}")
+    public void reconcile() {
+        if (enabled) {
+            limiters.forEach(SlidingWindowLimiter::reconcile);
+        }
+    }
+
+    private void reject(SlidingWindowLimiter limiter, String message) {
+        meterRegistry.counter("auth.rate_limit.rejected", "rule", limiter.name()).increment();
+        throw new RateLimitExceededException(message, limiter.window().toSeconds());
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static SlidingWindowLimiter rule(Environment environment, String name, int defaultLimit,
+                                             String defaultWindow, int maxKeys,
+                                             StringRedisTemplate redisTemplate, String nodeId) {
+        String prefix = "app.rate-limit." + name;
+        int limit = environment.getProperty(prefix + ".limit", Integer.class, defaultLimit);
+        Duration window = environment.getProperty(prefix + ".window", Duration.class,
+                DurationStyle.detectAndParse(defaultWindow));
+        return new SlidingWindowLimiter(name, limit, window, maxKeys, redisTemplate, nodeId);
+    }
+}
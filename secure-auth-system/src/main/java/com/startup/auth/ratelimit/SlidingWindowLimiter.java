@@ -0,0 +1,185 @@
+package com.startup.auth.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One rate-limit rule: at most {@code limit} hits per key within a sliding {@code window}.
+ * <p>
+ * Decisions are made locally from the last known cluster-wide count plus hits this node has not
+ * reported yet, kept in striped counters so the request path takes no locks and makes no
+ * network calls. {@link #reconcile()} sends pending hits to a Redis sorted set per key (the
+ * authoritative sliding window) in one pipeline and reads back the cluster-wide counts.
+ * Between reconciles, nodes can jointly admit up to one interval's worth of extra hits.
+ * If Redis is unreachable, each node falls back to counting on its own per window.
+ */
+@Slf4j
+class SlidingWindowLimiter {
+
+    private static final String KEY_PREFIX = "auth:ratelimit:";
+
+    private final String name;
+    private final int limit;
+    private final Duration window;
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Cache<String, KeyState> states;
+
+    SlidingWindowLimiter(String name, int limit, Duration window, int maxKeys,
+                         StringRedisTemplate redisTemplate, String nodeId) {
+        this.name = name;
+        this.limit = limit;
+        this.window = window;
+        this.redisTemplate = redisTemplate;
+        this.nodeId = nodeId;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .build();
+    }
+
+    String name() {
+        return name;
+    }
+
+    Duration window() {
+        return window;
+    }
+
+    boolean isExceeded(String key) {
+        KeyState state = states.getIfPresent(key);
+        if (state == null) {
+            return false;
+        }
+        // A key that is only ever checked still has to be reconciled, or it would stay blocked
+        // on its last cluster-wide count after the window has slid past those hits
+        state.touched = true;
+        return state.count() >= limit;
+    }
+
+    void record(String key) {
+        KeyState state = states.get(key, k -> new KeyState());
+        state.pending.increment();
+        state.touched = true;
+    }
+
+    /**
+     * Records a hit unless the key is already at its limit.
+     */
+    boolean tryAcquire(String key) {
+        KeyState state = states.get(key, k -> new KeyState());
+        state.touched = true;
+        if (state.count() >= limit) {
+            return false;
+        }
+        state.pending.increment();
+        return true;
+    }
+
+    void reconcile() {
+        List<String> keys = new ArrayList<>();
+        List<KeyState> batch = new ArrayList<>();
+        List<Long> sent = new ArrayList<>();
+        for (Map.Entry<String, KeyState> entry : states.asMap().entrySet()) {
+            KeyState state = entry.getValue();
+            long pending = state.pending.sum();
+            if (state.touched || pending > 0) {
+                keys.add(entry.getKey());
+                batch.add(state);
+                sent.add(pending);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (int i = 0; i < keys.size(); i++) {
+                        String redisKey = KEY_PREFIX + name + ":" + keys.get(i);
+                        ops.opsForZSet().removeRangeByScore(redisKey, 0, now - window.toMillis());
+                        if (sent.get(i) > 0) {
+                            ops.opsForZSet().add(redisKey, hits(sent.get(i), now));
+                        }
+                        ops.opsForZSet().zCard(redisKey);
+                        ops.expire(redisKey, window.toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Could not reconcile rate limit {} with Redis, counting locally: {}", name, e.getMessage());
+            batch.forEach(state -> state.expireLocally(now, window.toMillis()));
+            return;
+        }
+
+        int index = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            KeyState state = batch.get(i);
+            // ZREMRANGEBYSCORE, optional ZADD, then ZCARD
+            index += sent.get(i) > 0 ? 2 : 1;
+            Object card = results.get(index);
+            index += 2;
+
+            state.pending.add(-sent.get(i));
+            state.clusterCount = card instanceof Long count ? count : state.clusterCount;
+            state.touched = false;
+            state.windowStart = now;
+        }
+    }
+
+    private Set<ZSetOperations.TypedTuple<String>> hits(long count, long now) {
+        Set<ZSetOperations.TypedTuple<String>> hits = new HashSet<>();
+        for (long i = 0; i < count; i++) {
+            hits.add(new DefaultTypedTuple<>(nodeId + ":" + sequence.incrementAndGet(), (double) now));
+        }
+        return hits;
+    }
+
+    private static final class KeyState {
+
+        // Hits not yet reported to Redis
+        private final LongAdder pending = new LongAdder();
+        // Cluster-wide hits in the window as of the last reconcile, including ours
+        private volatile long clusterCount;
+        private volatile boolean touched;
+        private volatile long windowStart = System.currentTimeMillis();
+
+        long count() {
+            return clusterCount + pending.sum();
+        }
+
+        void expireLocally(long now, long windowMillis) {
+            if (now - windowStart >= windowMillis) {
+                pending.add(-pending.sum());
+                clusterCount = 0;
+                windowStart = now;
+            }
+        }
+    }
+}
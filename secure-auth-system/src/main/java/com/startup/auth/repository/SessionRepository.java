@@ -19,6 +19,12 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
 
     Optional<Session> findByRefreshTokenAndRevokedFalse(String refreshToken);
 
+    // Digest lookups resolve (id, expires_at) through session_tokens so they touch a single partition
+    @Query(value = "SELECT * FROM sessions WHERE (id, expires_at) = " +
+                   "(SELECT session_id, expires_at FROM session_tokens WHERE refresh_token_hash = :hash) AND revoked = false",
+           nativeQuery = true)
+    Optional<Session> findByRefreshTokenHashAndRevokedFalse(@Param("hash") byte[] refreshTokenHash);
+
     List<Session> findByUserIdAndRevokedFalse(Long userId);
 
     List<Session> findByUserIdAndRevokedFalseAndExpiresAtAfter(Long userId, LocalDateTime now);
@@ -34,8 +40,30 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
 
     @Modifying
     @Transactional
-    @Query("UPDATE Session s SET s.revoked = true, s.updatedAt = :now WHERE s.expiresAt < :now AND s.revoked = false")
-    int revokeExpiredSessions(@Param("now") LocalDateTime now);
+    @Query(value = "UPDATE sessions SET revoked = true, updated_at = :now WHERE (id, expires_at) = " +
+                   "(SELECT session_id, expires_at FROM session_tokens WHERE refresh_token_hash = :hash) AND revoked = false",
+           nativeQuery = true)
+    int revokeByRefreshTokenHash(@Param("hash") byte[] refreshTokenHash, @Param("now") LocalDateTime now);
+
+    // Keyed by (id, expires_at) so it touches a single partition and leaves the token columns alone
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE sessions SET revoked = true, updated_at = :now " +
+                   "WHERE id = :id AND expires_at = :expiresAt AND revoked = false",
+           nativeQuery = true)
+    int revokeById(@Param("id") Long id, @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE sessions SET refresh_token_hash = :newHash, expires_at = :expiresAt, last_used_at = :now, updated_at = :now " +
+                   "WHERE (id, expires_at) = (SELECT session_id, expires_at FROM session_tokens WHERE refresh_token_hash = :previousHash) " +
+                   "AND user_id = :userId AND revoked = false AND expires_at > :now",
+           nativeQuery = true)
+    int rotateRefreshToken(@Param("userId") Long userId,
+                           @Param("previousHash") byte[] previousHash,
+                           @Param("newHash") byte[] newHash,
+                           @Param("expiresAt") LocalDateTime expiresAt,
+                           @Param("now") LocalDateTime now);
 
     @Query("SELECT COUNT(s) FROM Session s WHERE s.user.id = :userId AND s.revoked = false AND s.expiresAt > :now")
     long countActiveSessionsByUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
@@ -0,0 +1,62 @@
+package com.startup.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads what authentication needs about a user, role ids included, in a single statement.
+ * Loading the entity instead costs a second query for the EAGER roles collection.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserCredentialsRepository {
+
+    private static final String SELECT_CREDENTIALS =
+            "SELECT u.id, u.email, u.phone, u.password_hash, u.is_active, " +
+            "ARRAY(SELECT ur.role_id FROM user_roles ur WHERE ur.user_id = u.id) AS role_ids " +
+            "FROM users u ";
+
+    private static final RowMapper<UserCredentials> MAPPER = UserCredentialsRepository::mapRow;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<UserCredentials> findByEmail(String email) {
+        return first(jdbcTemplate.query(SELECT_CREDENTIALS + "WHERE u.email = ?", MAPPER, email));
+    }
+
+    public Optional<UserCredentials> findById(Long id) {
+        return first(jdbcTemplate.query(SELECT_CREDENTIALS + "WHERE u.id = ?", MAPPER, id));
+    }
+
+    public Optional<UserCredentials> findByPhone(String phone) {
+        return first(jdbcTemplate.query(SELECT_CREDENTIALS + "WHERE u.phone = ?", MAPPER, phone));
+    }
+
+    private static Optional<UserCredentials> first(List<UserCredentials> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    private static UserCredentials mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Array roleIds = rs.getArray("role_ids");
+        return new UserCredentials(
+                rs.getLong("id"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getString("password_hash"),
+                rs.getBoolean("is_active"),
+                Arrays.asList((Long[]) roleIds.getArray()));
+    }
+
+    public record UserCredentials(Long id, String email, String phone, String passwordHash,
+                                  boolean active, List<Long> roleIds) {
+    }
+}
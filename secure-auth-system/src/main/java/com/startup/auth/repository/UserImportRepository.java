@@ -0,0 +1,95 @@
+package com.startup.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Loads batches of new users through {@code COPY} into a temporary staging table, then moves
+ * them into {@code users} and {@code user_roles} with a single INSERT. Must be called inside a
+ * transaction; the staging table is dropped at commit.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserImportRepository {
+
+    private static final String CREATE_STAGE_SQL =
+            "CREATE TEMPORARY TABLE user_import_stage (" +
+            "    line_no BIGINT NOT NULL, email VARCHAR(255), phone VARCHAR(20), password_hash VARCHAR(255)" +
+            ") ON COMMIT DROP";
+
+    private static final String COPY_STAGE_SQL =
+            "COPY user_import_stage (line_no, email, phone, password_hash) FROM STDIN (FORMAT csv)";
+
+    // The EXISTS check sees users as they were before this statement, so it only matches existing accounts
+    private static final String INSERT_FROM_STAGE_SQL =
+            "WITH inserted AS (" +
+            "    INSERT INTO users (email, phone, password_hash, is_active, mfa_enabled) " +
+            "    SELECT email, phone, password_hash, true, false FROM user_import_stage ORDER BY line_no " +
+            "    ON CONFLICT DO NOTHING RETURNING id, email" +
+            "), role_links AS (" +
+            "    INSERT INTO user_roles (user_id, role_id) SELECT id, ? FROM inserted" +
+            ") " +
+            "SELECT s.line_no, i.id, EXISTS (SELECT 1 FROM users u WHERE u.email = s.email) AS email_taken " +
+            "FROM user_import_stage s LEFT JOIN inserted i ON i.email = s.email";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rows must not share an email or phone with each other; conflicts with existing users are
+     * reported per row rather than failing the batch.
+     */
+    public List<Outcome> load(List<StagedUser> users, Long roleId) {
+        jdbcTemplate.execute(CREATE_STAGE_SQL);
+        String csv = toCsv(users);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGE_SQL, new StringReader(csv));
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Could not stream rows into user_import_stage", e);
+            }
+        });
+
+        return jdbcTemplate.query(INSERT_FROM_STAGE_SQL,
+                (rs, rowNum) -> new Outcome(rs.getLong("line_no"), (Long) rs.getObject("id"), rs.getBoolean("email_taken")),
+                roleId);
+    }
+
+    private static String toCsv(List<StagedUser> users) {
+        StringBuilder csv = new StringBuilder(users.size() * 128);
+        for (StagedUser user : users) {
+            csv.append(user.lineNumber()).append(',');
+            appendQuoted(csv, user.email());
+            csv.append(',');
+            // An unquoted empty field is NULL in COPY's csv format
+            if (user.phone() != null) {
+                appendQuoted(csv, user.phone());
+            }
+            csv.append(',');
+            appendQuoted(csv, user.passwordHash());
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static void appendQuoted(StringBuilder csv, String value) {
+        csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    public record StagedUser(long lineNumber, String email, String phone, String passwordHash) {
+    }
+
+    /**
+     * {@code userId} is null when the row was skipped; {@code emailTaken} then tells whether the
+     * email or otherwise the phone number belongs to an existing user.
+     */
+    public record Outcome(long lineNumber, Long userId, boolean emailTaken) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.startup.auth.repository;
+
+import com.startup.auth.dto.response.UserSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read-only admin queries over users that return {@link UserSummary} rows instead of entities.
+ * Pages seek past a {@link UserCursor} on ({@code created_at}, {@code id}) or
+ * ({@code last_login}, {@code id}), so every page costs the same regardless of depth and no
+ * COUNT query is run.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserQueryRepository {
+
+    private static final String SUMMARY_COLUMNS =
+            "SELECT u.id, u.email, u.phone, u.is_active, u.last_login, u.created_at, " +
+            "ARRAY(SELECT r.name FROM user_roles ur JOIN roles r ON r.id = ur.role_id " +
+            "      WHERE ur.user_id = u.id ORDER BY r.name) AS role_names " +
+            "FROM users u ";
+
+    private static final String HAS_ROLE = "EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = u.id AND ur.role_id = ?)";
+    private static final String AFTER_CREATED = " AND (u.created_at, u.id) > (?, ?)";
+    private static final String AFTER_LAST_LOGIN = " AND (u.last_login, u.id) > (?, ?)";
+    private static final String BY_CREATED = " ORDER BY u.created_at, u.id";
+    private static final String BY_LAST_LOGIN = " ORDER BY u.last_login, u.id";
+
+    private static final RowMapper<UserSummary> SUMMARY_MAPPER = UserQueryRepository::mapSummary;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<UserSummary> findByRoleId(Long roleId, UserCursor after, int limit) {
+        return page(SUMMARY_COLUMNS + "WHERE " + HAS_ROLE, AFTER_CREATED, BY_CREATED,
+                new ArrayList<>(List.of(roleId)), after, limit);
+    }
+
+    public List<UserSummary> findByIsActive(boolean isActive, UserCursor after, int limit) {
+        return page(SUMMARY_COLUMNS + "WHERE u.is_active = ?", AFTER_CREATED, BY_CREATED,
+                new ArrayList<>(List.of(isActive)), after, limit);
+    }
+
+    public List<UserSummary> findByLastLoginBetween(LocalDateTime start, LocalDateTime end, UserCursor after, int limit) {
+        return page(SUMMARY_COLUMNS + "WHERE u.last_login BETWEEN ? AND ?", AFTER_LAST_LOGIN, BY_LAST_LOGIN,
+                new ArrayList<>(List.of(Timestamp.valueOf(start), Timestamp.valueOf(end))), after, limit);
+    }
+
+    /**
+     * Streams users in ({@code created_at}, {@code id}) order through a server-side cursor,
+     * {@code fetchSize} rows at a time. Must be called inside a transaction, which PostgreSQL
+     * requires for cursor-based fetching.
+     */
+    public void streamAll(Long roleId, Boolean isActive, int fetchSize, Consumer<UserSummary> sink) {
+        StringBuilder sql = new StringBuilder(SUMMARY_COLUMNS).append("WHERE true");
+        List<Object> args = new ArrayList<>();
+        if (roleId != null) {
+            sql.append(" AND ").append(HAS_ROLE);
+            args.add(roleId);
+        }
+        if (isActive != null) {
+            sql.append(" AND u.is_active = ?");
+            args.add(isActive);
+        }
+        sql.append(BY_CREATED);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> sink.accept(mapSummary(rs, 0)));
+    }
+
+    private List<UserSummary> page(String baseSql, String seekClause, String orderBy,
+                                   List<Object> args, UserCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(baseSql);
+        if (after != null) {
+            sql.append(seekClause);
+            args.add(Timestamp.valueOf(after.position()));
+            args.add(after.id());
+        }
+        sql.append(orderBy).append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), SUMMARY_MAPPER, args.toArray());
+    }
+
+    private static UserSummary mapSummary(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp lastLogin = rs.getTimestamp("last_login");
+        Array roleNames = rs.getArray("role_names");
+        return UserSummary.builder()
+                .id(rs.getLong("id"))
+                .email(rs.getString("email"))
+                .phone(rs.getString("phone"))
+                .active(rs.getBoolean("is_active"))
+                .lastLogin(lastLogin != null ? lastLogin.toLocalDateTime() : null)
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .roles(Arrays.asList((String[]) roleNames.getArray()))
+                .build();
+    }
+}
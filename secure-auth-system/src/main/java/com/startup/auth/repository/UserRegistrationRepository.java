@@ -0,0 +1,65 @@
+package com.startup.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Inserts a new user, its role link and optionally its first session in a single statement.
+ * Duplicates are left to the unique constraints on {@code users}, surfacing as
+ * {@link org.springframework.dao.DuplicateKeyException}; see {@link #EMAIL_UNIQUE_CONSTRAINT}
+ * and {@link #PHONE_UNIQUE_CONSTRAINT}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserRegistrationRepository {
+
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "users_email_key";
+    public static final String PHONE_UNIQUE_CONSTRAINT = "users_phone_key";
+
+    private static final String INSERT_USER_AND_ROLE_SQL =
+            "WITH new_user AS (" +
+            "    INSERT INTO users (email, phone, password_hash, is_active, mfa_enabled) " +
+            "    VALUES (?, ?, ?, true, false) RETURNING id" +
+            "), role_link AS (" +
+            "    INSERT INTO user_roles (user_id, role_id) SELECT id, ? FROM new_user" +
+            ") ";
+
+    private static final String REGISTER_SQL =
+            INSERT_USER_AND_ROLE_SQL +
+            "SELECT id, NULL::bigint AS session_id FROM new_user";
+
+    private static final String REGISTER_WITH_SESSION_SQL =
+            INSERT_USER_AND_ROLE_SQL +
+            ", new_session AS (" +
+            "    INSERT INTO sessions (user_id, refresh_token_hash, device_id, device_info, created_at, expires_at, last_used_at, revoked) " +
+            "    SELECT id, ?, ?, ?, ?, ?, ?, false FROM new_user RETURNING id" +
+            ") " +
+            "SELECT new_user.id, new_session.id AS session_id FROM new_user, new_session";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Registration register(String email, String phone, String passwordHash, Long roleId, NewSession session) {
+        if (session == null) {
+            return jdbcTemplate.queryForObject(REGISTER_SQL,
+                    (rs, rowNum) -> new Registration(rs.getLong("id"), null),
+                    email, phone, passwordHash, roleId);
+        }
+
+        Timestamp createdAt = Timestamp.valueOf(session.createdAt());
+        return jdbcTemplate.queryForObject(REGISTER_WITH_SESSION_SQL,
+                (rs, rowNum) -> new Registration(rs.getLong("id"), rs.getLong("session_id")),
+                email, phone, passwordHash, roleId,
+                session.refreshTokenHash(), session.deviceId(), session.deviceInfo(), createdAt,
+                Timestamp.valueOf(session.expiresAt()), createdAt);
+    }
+
+    public record NewSession(byte[] refreshTokenHash, String deviceId, String deviceInfo, LocalDateTime createdAt, LocalDateTime expiresAt) {
+    }
+
+    public record Registration(Long userId, Long sessionId) {
+    }
+}
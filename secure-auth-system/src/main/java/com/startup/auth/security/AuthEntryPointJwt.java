@@ -1,40 +1,81 @@
 package com.startup.auth.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
 import java.util.Map;
 
+/**
+ * Writes 401 responses from bodies serialized once per {@link AuthFailureReason}; only the request
+ * path is written per request, so rejecting unauthenticated traffic allocates next to nothing.
+ */
 @Component
-@Slf4j
+@RequiredArgsConstructor
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
 
+    private static final Map<AuthFailureReason, byte[]> BODY_PREFIXES = new EnumMap<>(AuthFailureReason.class);
+    private static final byte[] BODY_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        for (AuthFailureReason reason : AuthFailureReason.values()) {
+            String prefix = "{\"success\":false,\"status\":401,\"error\":\"Unauthorized\",\"message\":\""
+                    + new String(JsonStringEncoder.getInstance().quoteAsString(reason.message()))
+                    + "\",\"path\":\"";
+            BODY_PREFIXES.put(reason, prefix.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private final AuthFailureLog authFailureLog;
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
+        AuthFailureReason reason = request.getAttribute(AuthFailureReason.ATTRIBUTE) instanceof AuthFailureReason failure
+                ? failure
+                : AuthFailureReason.MISSING_TOKEN;
+        authFailureLog.record(reason, request);
 
-        log.error("Unauthorized error: {}", authException.getMessage());
+        byte[] prefix = BODY_PREFIXES.get(reason);
+        String path = request.getServletPath();
+        byte[] escapedPath = isPlainAscii(path) ? null : JsonStringEncoder.getInstance().quoteAsUTF8(path);
+        int pathLength = escapedPath == null ? path.length() : escapedPath.length;
 
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(prefix.length + pathLength + BODY_SUFFIX.length);
 
-        final Map<String, Object> body = new HashMap<>();
-        body.put("success", false);
-        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-        body.put("error", "Unauthorized");
-        body.put("message", authException.getMessage());
-        body.put("path", request.getServletPath());
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        if (escapedPath == null) {
+            for (int i = 0; i < pathLength; i++) {
+                out.write(path.charAt(i));
+            }
+        } else {
+            out.write(escapedPath);
+        }
+        out.write(BODY_SUFFIX);
+        out.flush();
+    }
 
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), body);
+    // Printable ASCII other than the quote and backslash is written to JSON as is
+    private static boolean isPlainAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
     }
 }
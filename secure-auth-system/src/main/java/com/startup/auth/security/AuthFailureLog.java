@@ -0,0 +1,72 @@
+package com.startup.auth.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts rejected unauthenticated requests by {@link AuthFailureReason} into the
+ * {@code auth.unauthorized} counter and logs them without letting a flood drive log volume:
+ * at most one sampled request per interval, plus one summary line with the counts of the interval.
+ */
+@Component
+@Slf4j
+public class AuthFailureLog {
+
+    private final Map<AuthFailureReason, LongAdder> pending = new EnumMap<>(AuthFailureReason.class);
+    private final Map<AuthFailureReason, Counter> counters = new EnumMap<>(AuthFailureReason.class);
+    private final long sampleIntervalNanos;
+    private final AtomicLong nextSampleAt;
+
+    public AuthFailureLog(MeterRegistry meterRegistry,
+                          @Value("${app.security.auth-failure-log.interval-ms:10000}") long intervalMs) {
+        for (AuthFailureReason reason : AuthFailureReason.values()) {
+            pending.put(reason, new LongAdder());
+            counters.put(reason, Counter.builder("auth.unauthorized")
+                    .tag("reason", reason.tag())
+                    .register(meterRegistry));
+        }
+        this.sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.nextSampleAt = new AtomicLong(System.nanoTime());
+    }
+
+    public void record(AuthFailureReason reason, HttpServletRequest request) {
+        pending.get(reason).increment();
+        counters.get(reason).increment();
+
+        long now = System.nanoTime();
+        long next = nextSampleAt.get();
+        if (now - next >= 0 && nextSampleAt.compareAndSet(next, now + sampleIntervalNanos)) {
+            log.info("Rejected unauthenticated request ({}): {} {} from {}",
+                    reason.tag(), request.getMethod(), request.getServletPath(), request.getRemoteAddr());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.auth-failure-log.interval-ms:10000}",
+               initialDelayString = "${app.security.auth-failure-log.interval-ms:10000}")
+    public void logSummary() {
+        StringBuilder summary = null;
+        long total = 0;
+        for (Map.Entry<AuthFailureReason, LongAdder> entry : pending.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                summary = (summary == null ? new StringBuilder() : summary.append(", "))
+                        .append(entry.getKey().tag()).append('=').append(count);
+                total += count;
+            }
+        }
+        if (summary != null) {
+            log.info("Rejected {} unauthenticated requests ({})", total, summary);
+        }
+    }
+}
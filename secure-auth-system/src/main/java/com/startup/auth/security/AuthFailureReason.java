@@ -0,0 +1,31 @@
+package com.startup.auth.security;
+
+/**
+ * Why a request reached {@link AuthEntryPointJwt} unauthenticated. {@link AuthTokenFilter} stores
+ * the reason as a request attribute; a request without one carried no Authorization header.
+ */
+public enum AuthFailureReason {
+
+    MISSING_TOKEN("missing", "Full authentication is required to access this resource"),
+    MALFORMED_TOKEN("malformed", "Malformed Authorization header"),
+    INVALID_TOKEN("invalid", "Invalid access token"),
+    EXPIRED_TOKEN("expired", "Access token has expired");
+
+    public static final String ATTRIBUTE = AuthFailureReason.class.getName();
+
+    private final String tag;
+    private final String message;
+
+    AuthFailureReason(String tag, String message) {
+        this.tag = tag;
+        this.message = message;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public String message() {
+        return message;
+    }
+}
@@ -0,0 +1,141 @@
+package com.startup.auth.security;
+
+import com.startup.auth.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthTokenFilter extends OncePerRequestFilter {
+
+    public static final String AUTH_MODE_CLAIMS = "claims";
+    public static final String AUTH_MODE_DATABASE = "database";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    // Access tokens are a few hundred bytes; anything longer is not one of ours
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final WebAuthenticationDetailsSource AUTHENTICATION_DETAILS = new WebAuthenticationDetailsSource();
+
+    private final JwtUtils jwtUtils;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RoleRegistry roleRegistry;
+
+    @Value("${app.security.auth-mode:" + AUTH_MODE_DATABASE + "}")
+    private String authMode;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String headerAuth = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (headerAuth != null) {
+            AuthFailureReason failure;
+            try {
+                failure = authenticate(headerAuth, request);
+            } catch (Exception e) {
+                log.error("Cannot set user authentication: {}", e.getMessage());
+                failure = AuthFailureReason.INVALID_TOKEN;
+            }
+            if (failure != null) {
+                // Read by AuthEntryPointJwt if the request turns out to need authentication
+                request.setAttribute(AuthFailureReason.ATTRIBUTE, failure);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Authenticates the request from its bearer token, or returns why the token was not accepted.
+     * Expected failures are not logged here; {@link AuthFailureLog} samples them on rejection.
+     */
+    private AuthFailureReason authenticate(String headerAuth, HttpServletRequest request) {
+        if (!isWellFormedBearer(headerAuth)) {
+            return AuthFailureReason.MALFORMED_TOKEN;
+        }
+
+        JwtClaims claims;
+        try {
+            claims = jwtUtils.parseToken(headerAuth.substring(BEARER_PREFIX.length()));
+        } catch (ExpiredJwtException e) {
+            return AuthFailureReason.EXPIRED_TOKEN;
+        } catch (JwtException | IllegalArgumentException e) {
+            return AuthFailureReason.INVALID_TOKEN;
+        }
+        if (!claims.isAccessToken() || tokenRevocationService.isRevoked(claims)) {
+            return AuthFailureReason.INVALID_TOKEN;
+        }
+
+        UserDetails userDetails;
+        try {
+            userDetails = resolvePrincipal(claims);
+        } catch (UsernameNotFoundException e) {
+            return AuthFailureReason.INVALID_TOKEN;
+        }
+        if (!userDetails.isEnabled()) {
+            return AuthFailureReason.INVALID_TOKEN;
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authentication.setDetails(AUTHENTICATION_DETAILS.buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return null;
+    }
+
+    private UserDetails resolvePrincipal(JwtClaims claims) {
+        // Tokens without a principal snapshot, such as those from generateTokenFromUserId, go through the database
+        if (AUTH_MODE_CLAIMS.equalsIgnoreCase(authMode) && claims.hasPrincipalSnapshot()) {
+            return UserPrincipal.create(claims, roleRegistry);
+        }
+        return userDetailsService.loadUserById(claims.getUserId());
+    }
+
+    /**
+     * Cheap structural check run before any JWT parsing: "Bearer " followed by three non-empty
+     * base64url segments within {@link #MAX_TOKEN_LENGTH}. Scanner traffic rarely gets past it.
+     */
+    private static boolean isWellFormedBearer(String headerAuth) {
+        int length = headerAuth.length();
+        if (length <= BEARER_PREFIX.length() || length - BEARER_PREFIX.length() > MAX_TOKEN_LENGTH
+                || !headerAuth.startsWith(BEARER_PREFIX)) {
+            return false;
+        }
+
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = BEARER_PREFIX.length(); i < length; i++) {
+            char c = headerAuth.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++dots > 2) {
+                    return false;
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return dots == 2 && segmentLength > 0;
+    }
+}
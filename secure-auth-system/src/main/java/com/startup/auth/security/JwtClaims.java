@@ -0,0 +1,40 @@
+package com.startup.auth.security;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class JwtClaims {
+
+    public static final String TYPE_ACCESS = "ACCESS";
+    public static final String TYPE_REFRESH = "REFRESH";
+
+    Long userId;
+    String type;
+    Instant issuedAt;
+    Instant expiresAt;
+    String tokenId;
+
+    // Only present on access tokens issued with a principal snapshot
+    String email;
+    Long roleMask;
+    Boolean active;
+    Long sessionEpoch;
+
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    public boolean hasPrincipalSnapshot() {
+        return roleMask != null && active != null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+}
@@ -0,0 +1,205 @@
+package com.startup.auth.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asymmetric JWT keys (ES256 or EdDSA), loaded from a private JWK set at {@code app.jwt.keys.location}
+ * and reloaded periodically, so keys rotate without restarts.
+ * <p>
+ * Each key may carry {@code nbf} and {@code exp} members in epoch seconds. A key is published
+ * and accepted for verification until its {@code exp}; the private key with the latest
+ * {@code nbf} that has passed signs new tokens. Adding the next key with a future {@code nbf}
+ * lets verifiers pick it up from the JWKS endpoint before any token is signed with it.
+ * <p>
+ * When no location is configured tokens are signed with the HMAC secret, as before. Once keys are
+ * configured, HMAC-signed tokens are rejected unless {@code app.jwt.keys.accept-hmac} is set, and
+ * then only for one access-token lifetime after the keys were first loaded: every token signed
+ * before the switch has expired by then, and the shared secret stops being able to forge tokens.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String location;
+    // Tokens signed before the switch to asymmetric keys stay valid until they expire
+    private final SecretKey legacyHmacKey;
+    private final Duration legacyHmacWindow;
+    private volatile Instant legacyHmacAcceptedUntil = Instant.MIN;
+
+    private volatile Snapshot snapshot = new Snapshot(null, Map.of(), List.of());
+
+    public JwtKeyRing(ResourceLoader resourceLoader,
+                      ObjectMapper objectMapper,
+                      @Value("${app.jwt.keys.location:}") String location,
+                      @Value("${app.jwt.keys.accept-hmac:false}") boolean acceptHmac,
+                      @Value("${app.jwt.secret}") String hmacSecret,
+                      @Value("${app.jwt.expiration-ms}") long accessTokenLifetimeMs) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.location = location;
+        this.legacyHmacKey = acceptHmac ? Keys.hmacShaKeyFor(hmacSecret.getBytes(StandardCharsets.UTF_8)) : null;
+        this.legacyHmacWindow = Duration.ofMillis(accessTokenLifetimeMs);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (isEnabled()) {
+            snapshot = load(Instant.now());
+            if (snapshot.signingKey == null) {
+                throw new IllegalStateException("No active private key in " + location);
+            }
+            log.info("Loaded {} JWT keys, signing with {}", snapshot.verificationKeys.size(), snapshot.signingKey.kid());
+            if (legacyHmacKey != null) {
+                legacyHmacAcceptedUntil = Instant.now().plus(legacyHmacWindow);
+                log.warn("Accepting HMAC-signed JWTs until {}; unset app.jwt.keys.accept-hmac afterwards",
+                        legacyHmacAcceptedUntil);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.keys.refresh-interval-ms:60000}",
+               initialDelayString = "${app.jwt.keys.refresh-interval-ms:60000}")
+    public void reload() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Snapshot loaded = load(Instant.now());
+            if (loaded.signingKey == null) {
+                log.error("No active private key in {}, keeping the previous key set", location);
+                return;
+            }
+            if (snapshot.signingKey == null || !loaded.signingKey.kid().equals(snapshot.signingKey.kid())) {
+                log.info("Signing JWTs with key {}", loaded.signingKey.kid());
+            }
+            snapshot = loaded;
+        } catch (Exception e) {
+            log.error("Could not reload JWT keys from {}, keeping the previous key set: {}", location, e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return StringUtils.hasText(location);
+    }
+
+    public SigningKey currentSigningKey() {
+        return snapshot.signingKey;
+    }
+
+    /**
+     * The public halves of all published keys, as a JWK set.
+     */
+    public Map<String, Object> publicJwkSet() {
+        return Map.of("keys", snapshot.publicJwks);
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            String algorithm = header.getAlgorithm();
+            if (legacyHmacKey != null && algorithm != null && algorithm.startsWith("HS")
+                    && Instant.now().isBefore(legacyHmacAcceptedUntil)) {
+                return legacyHmacKey;
+            }
+            throw new UnsupportedJwtException("JWT has no key id");
+        }
+
+        VerificationKey key = snapshot.verificationKeys.get(kid);
+        if (key == null || key.isExpired(Instant.now())) {
+            throw new UnsupportedJwtException("Unknown or retired JWT key id: " + kid);
+        }
+        return key.key();
+    }
+
+    private Snapshot load(Instant now) throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        JsonNode keySet;
+        try (InputStream in = resource.getInputStream()) {
+            keySet = objectMapper.readTree(in);
+        }
+
+        Map<String, VerificationKey> verificationKeys = new HashMap<>();
+        List<Map<String, ?>> publicJwks = new ArrayList<>();
+        SigningKey signingKey = null;
+        long signingNotBefore = Long.MIN_VALUE;
+
+        for (JsonNode node : keySet.path("keys")) {
+            Jwk<?> jwk = Jwks.parser().build().parse(objectMapper.writeValueAsString(node));
+            if (jwk.getId() == null) {
+                throw new IllegalStateException("Every JWT key needs a kid");
+            }
+
+            long notBefore = node.path("nbf").asLong(0);
+            Instant expiresAt = node.hasNonNull("exp") ? Instant.ofEpochSecond(node.get("exp").asLong()) : null;
+            if (expiresAt != null && !expiresAt.isAfter(now)) {
+                continue;
+            }
+
+            PublicJwk<?> publicJwk;
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                publicJwk = privateJwk.toPublicJwk();
+                if (notBefore <= now.getEpochSecond() && notBefore >= signingNotBefore) {
+                    signingKey = new SigningKey(jwk.getId(), (PrivateKey) privateJwk.toKey());
+                    signingNotBefore = notBefore;
+                }
+            } else if (jwk instanceof PublicJwk<?> verifyOnly) {
+                publicJwk = verifyOnly;
+            } else {
+                throw new IllegalStateException("JWT key " + jwk.getId() + " is not an asymmetric key");
+            }
+
+            verificationKeys.put(jwk.getId(), new VerificationKey(publicJwk.toKey(), expiresAt));
+            publicJwks.add(new LinkedHashMap<>(publicJwk));
+        }
+
+        return new Snapshot(signingKey, Map.copyOf(verificationKeys), List.copyOf(publicJwks));
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey) {
+    }
+
+    private record VerificationKey(Key key, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+
+    private record Snapshot(SigningKey signingKey, Map<String, VerificationKey> verificationKeys,
+                            List<Map<String, ?>> publicJwks) {
+    }
+}
@@ -2,22 +2,31 @@ package com.startup.auth.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtUtils {
 
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtKeyRing jwtKeyRing;
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -27,108 +36,128 @@ public class JwtUtils {
     @Value("${app.jwt.refresh-expiration-ms}")
     private int jwtRefreshExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Derived once at startup; both the key and the parser are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        // With asymmetric keys the verification key is picked per token by its kid header
+        this.jwtParser = jwtKeyRing.isEnabled()
+                ? Jwts.parser().keyLocator(jwtKeyRing).build()
+                : Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return generateTokenFromUserId(userPrincipal.getId());
+        return generateAccessToken(userPrincipal);
     }
 
-    public String generateTokenFromUserId(Long userId) {
-        Instant now = Instant.now();
-        Instant expiryDate = now.plus(jwtExpirationMs, ChronoUnit.MILLIS);
-
+    public String generateAccessToken(UserPrincipal userPrincipal) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userId);
-        claims.put("type", "ACCESS");
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(Long.toString(userId))
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(expiryDate))
-                .signWith(getSigningKey())
-                .compact();
+        claims.put("email", userPrincipal.getEmail());
+        claims.put("rm", userPrincipal.getRoleMask());
+        claims.put("active", userPrincipal.isActive());
+        claims.put("sep", tokenRevocationService.currentSessionEpoch(userPrincipal.getId()));
+
+        return buildToken(userPrincipal.getId(), JwtClaims.TYPE_ACCESS, jwtExpirationMs, claims);
     }
 
-    public String generateRefreshToken(Long userId) {
-        Instant now = Instant.now();
-        Instant expiryDate = now.plus(jwtRefreshExpirationMs, ChronoUnit.MILLIS);
+    public String generateTokenFromUserId(Long userId) {
+        return buildToken(userId, JwtClaims.TYPE_ACCESS, jwtExpirationMs, new HashMap<>());
+    }
 
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userId);
-        claims.put("type", "REFRESH");
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(Long.toString(userId))
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(expiryDate))
-                .signWith(getSigningKey())
-                .compact();
+    public String generateRefreshToken(Long userId) {
+        return buildToken(userId, JwtClaims.TYPE_REFRESH, jwtRefreshExpirationMs, new HashMap<>());
     }
 
-    public Long getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private String buildToken(Long userId, String type, long ttlMs, Map<String, Object> claims) {
+        Instant now = Instant.now();
+        Instant expiryDate = now.plus(ttlMs, ChronoUnit.MILLIS);
 
-        return Long.parseLong(claims.getSubject());
+        claims.put("userId", userId);
+        claims.put("type", type);
+
+        JwtBuilder builder = Jwts.builder()
+                .claims(claims)
+                .id(UUID.randomUUID().toString())
+                .subject(Long.toString(userId))
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(expiryDate));
+
+        if (jwtKeyRing.isEnabled()) {
+            JwtKeyRing.SigningKey key = jwtKeyRing.currentSigningKey();
+            builder.header().keyId(key.kid()).and().signWith(key.privateKey());
+        } else {
+            builder.signWith(signingKey);
+        }
+        return builder.compact();
     }
 
-    public String getTokenType(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return (String) claims.get("type");
+    /**
+     * Verifies the signature and expiry of the token exactly once and returns its claims.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtClaims parseToken(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        return new JwtClaims(
+                Long.parseLong(claims.getSubject()),
+                claims.get("type", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                claims.getId(),
+                claims.get("email", String.class),
+                claims.get("rm", Long.class),
+                claims.get("active", Boolean.class),
+                claims.get("sep", Long.class)
+        );
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Same as {@link #parseToken(String)} but logs and swallows validation failures.
+     */
+    public Optional<JwtClaims> validateAndParse(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
-        } catch (SecurityException e) {
-            log.error("Invalid JWT signature: {}", e.getMessage());
+            return Optional.of(parseToken(token));
+        } catch (io.jsonwebtoken.security.SecurityException e) {
+            log.debug("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
+            log.debug("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
+            log.debug("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
+            log.debug("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
+            log.debug("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.debug("Invalid JWT: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public Long getUserIdFromJwtToken(String token) {
+        return parseToken(token).getUserId();
+    }
+
+    public String getTokenType(String token) {
+        return parseToken(token).getType();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return validateAndParse(authToken).isPresent();
     }
 
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getExpiration().before(new Date());
+            return parseToken(token).isExpired(Instant.now());
         } catch (Exception e) {
             return true;
         }
     }
 
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getExpiration();
+        return Date.from(parseToken(token).getExpiresAt());
     }
-}
\ No newline at end of file
+}
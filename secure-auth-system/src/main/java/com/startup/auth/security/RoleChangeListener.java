@@ -0,0 +1,38 @@
+package com.startup.auth.security;
+
+import com.startup.auth.entity.Role;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Refreshes {@link RoleRegistry} on every node once a change to the roles table has committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoleChangeListener {
+
+    // Resolved per call: the registry depends on the repository layer this listener is part of
+    private final ObjectProvider<RoleRegistry> roleRegistry;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRoleChanged(Role role) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    roleRegistry.getObject().publishChange();
+                }
+            });
+        } else {
+            roleRegistry.getObject().publishChange();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.startup.auth.security;
+
+import com.startup.auth.entity.Role;
+import com.startup.auth.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, in-memory view of the {@code roles} table.
+ * <p>
+ * A user's roles are represented as a bitmask where bit {@code n} stands for the role with
+ * id {@code n + 1}, so masks stay stable across nodes and restarts. Authority objects and
+ * the authority/name lists for every mask are preallocated and shared by all principals.
+ * The registry reloads when a role changes on any node (see {@link #ROLES_CHANGED_CHANNEL}).
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    public static final String ROLES_CHANGED_CHANNEL = "auth:roles:changed";
+
+    private static final int MAX_ROLES = Long.SIZE;
+    // Up to 2^10 masks are precomputed; beyond that lists are built on demand
+    private static final int MAX_PRECOMPUTED_BITS = 10;
+
+    private final RoleRepository roleRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private volatile Snapshot snapshot;
+
+    public RoleRegistry(RoleRepository roleRepository,
+                        StringRedisTemplate redisTemplate,
+                        RedisMessageListenerContainer listenerContainer) {
+        this.roleRepository = roleRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener((message, pattern) -> reload(), new ChannelTopic(ROLES_CHANGED_CHANNEL));
+        reload();
+    }
+
+    public void reload() {
+        this.snapshot = new Snapshot(roleRepository.findAll());
+        log.info("Loaded {} roles into the role registry", snapshot.idsByName.size());
+    }
+
+    /**
+     * Reloads locally and tells every other node to do the same.
+     */
+    public void publishChange() {
+        reload();
+        try {
+            redisTemplate.convertAndSend(ROLES_CHANGED_CHANNEL, "reload");
+        } catch (Exception e) {
+            log.warn("Could not broadcast role change: {}", e.getMessage());
+        }
+    }
+
+    public Long getRequiredId(String roleName) {
+        Long id = snapshot.idsByName.get(roleName);
+        if (id == null) {
+            throw new IllegalStateException("Error: Role " + roleName + " is not found.");
+        }
+        return id;
+    }
+
+    public long maskOf(Collection<Role> roles) {
+        long mask = 0;
+        for (Role role : roles) {
+            mask |= bitOf(role.getId());
+        }
+        return mask;
+    }
+
+    public long maskOfIds(Collection<Long> roleIds) {
+        long mask = 0;
+        for (Long roleId : roleIds) {
+            mask |= bitOf(roleId);
+        }
+        return mask;
+    }
+
+    public long maskOfNames(Collection<String> roleNames) {
+        Snapshot current = snapshot;
+        long mask = 0;
+        for (String name : roleNames) {
+            Long id = current.idsByName.get(name);
+            if (id != null) {
+                mask |= bitOf(id);
+            }
+        }
+        return mask;
+    }
+
+    public List<GrantedAuthority> authoritiesOf(long mask) {
+        Snapshot current = snapshot;
+        if (mask >= 0 && mask < current.authoritiesByMask.size()) {
+            return current.authoritiesByMask.get((int) mask);
+        }
+        return current.buildAuthorities(mask);
+    }
+
+    public List<String> namesOf(long mask) {
+        Snapshot current = snapshot;
+        if (mask >= 0 && mask < current.namesByMask.size()) {
+            return current.namesByMask.get((int) mask);
+        }
+        return current.buildNames(mask);
+    }
+
+    private static long bitOf(Long roleId) {
+        if (roleId == null || roleId < 1 || roleId > MAX_ROLES) {
+            return 0;
+        }
+        return 1L << (roleId - 1);
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Long> idsByName = new HashMap<>();
+        private final String[] namesByBit = new String[MAX_ROLES];
+        private final GrantedAuthority[] authoritiesByBit = new GrantedAuthority[MAX_ROLES];
+        private final List<List<GrantedAuthority>> authoritiesByMask;
+        private final List<List<String>> namesByMask;
+
+        Snapshot(List<Role> roles) {
+            int highestBit = -1;
+            for (Role role : roles) {
+                long bit = bitOf(role.getId());
+                if (bit == 0) {
+                    log.warn("Role {} has id {} which cannot be represented in a role mask", role.getName(), role.getId());
+                    continue;
+                }
+                int index = Long.numberOfTrailingZeros(bit);
+                idsByName.put(role.getName(), role.getId());
+                namesByBit[index] = role.getName();
+                authoritiesByBit[index] = new SimpleGrantedAuthority("ROLE_" + role.getName());
+                highestBit = Math.max(highestBit, index);
+            }
+
+            int precomputed = highestBit < MAX_PRECOMPUTED_BITS ? 1 << (highestBit + 1) : 0;
+            List<List<GrantedAuthority>> authorities = new ArrayList<>(precomputed);
+            List<List<String>> names = new ArrayList<>(precomputed);
+            for (int mask = 0; mask < precomputed; mask++) {
+                authorities.add(buildAuthorities(mask));
+                names.add(buildNames(mask));
+            }
+            this.authoritiesByMask = List.copyOf(authorities);
+            this.namesByMask = List.copyOf(names);
+        }
+
+        List<GrantedAuthority> buildAuthorities(long mask) {
+            List<GrantedAuthority> result = new ArrayList<>(Long.bitCount(mask));
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                GrantedAuthority authority = authoritiesByBit[Long.numberOfTrailingZeros(remaining)];
+                if (authority != null) {
+                    result.add(authority);
+                }
+            }
+            return List.copyOf(result);
+        }
+
+        List<String> buildNames(long mask) {
+            List<String> result = new ArrayList<>(Long.bitCount(mask));
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                String name = namesByBit[Long.numberOfTrailingZeros(remaining)];
+                if (name != null) {
+                    result.add(name);
+                }
+            }
+            return List.copyOf(result);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.startup.auth.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access-token revocation that stays in-process on the request path.
+ * <p>
+ * Individually revoked token ids live in a Redis sorted set scored by token expiry and are
+ * mirrored into a Bloom filter on every node; only filter hits are confirmed against Redis.
+ * Each access token also carries the user's session epoch, and "logout everywhere" bumps
+ * that epoch so every older token is rejected. Both are propagated over {@link #REVOCATION_CHANNEL}.
+ * <p>
+ * Pub/sub drops messages while a node is reconnecting, so each node also re-reads both from
+ * Redis whenever the revocation version counter has moved since its last sync, and into every
+ * new filter generation.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    public static final String REVOCATION_CHANNEL = "auth:revocation";
+
+    private static final String REVOKED_TOKENS_KEY = "auth:revoked-tokens";
+    private static final String SESSION_EPOCHS_KEY = "auth:session-epochs";
+    // Bumped with every revocation, so a sync can tell whether anything changed
+    private static final String VERSION_KEY = "auth:revocation-version";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<Long, Long> sessionEpochs = new ConcurrentHashMap<>();
+
+    @Value("${app.security.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${app.security.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    // Two generations, each rotated after one access-token lifetime, so every entry survives at least that long
+    private volatile RevocationBloomFilter currentFilter;
+    private volatile RevocationBloomFilter previousFilter;
+    private volatile String syncedVersion;
+
+    public TokenRevocationService(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    void init() {
+        currentFilter = new RevocationBloomFilter(expectedRevocations, falsePositiveRate);
+        previousFilter = new RevocationBloomFilter(expectedRevocations, falsePositiveRate);
+
+        // Subscribe before loading so nothing published in between is lost
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(REVOCATION_CHANNEL));
+
+        try {
+            int revoked = load(currentFilter);
+            log.info("Loaded {} revoked tokens and {} session epochs", revoked, sessionEpochs.size());
+        } catch (Exception e) {
+            log.warn("Could not load revocation state from Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Catches up on revocations whose pub/sub message this node missed.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:30000}",
+               initialDelayString = "${app.security.revocation.sync-interval-ms:30000}")
+    void sync() {
+        try {
+            String version = redisTemplate.opsForValue().get(VERSION_KEY);
+            if (version != null && !version.equals(syncedVersion)) {
+                load(currentFilter);
+            }
+        } catch (Exception e) {
+            log.warn("Could not sync revocation state from Redis: {}", e.getMessage());
+        }
+    }
+
+    // Adds the unexpired revoked token ids to the filter and raises local epochs to Redis's
+    private int load(RevocationBloomFilter filter) {
+        // Read first: a revocation landing during the load triggers another sync
+        String version = redisTemplate.opsForValue().get(VERSION_KEY);
+        Set<String> revoked = redisTemplate.opsForZSet()
+                .rangeByScore(REVOKED_TOKENS_KEY, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        if (revoked != null) {
+            revoked.forEach(filter::put);
+        }
+
+        redisTemplate.<String, String>opsForHash().entries(SESSION_EPOCHS_KEY)
+                .forEach((userId, epoch) -> sessionEpochs.merge(Long.valueOf(userId), Long.valueOf(epoch), Math::max));
+        syncedVersion = version;
+        return revoked != null ? revoked.size() : 0;
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        Long tokenEpoch = claims.getSessionEpoch();
+        if (sessionEpochs.getOrDefault(claims.getUserId(), 0L) > (tokenEpoch != null ? tokenEpoch : 0L)) {
+            return true;
+        }
+
+        String tokenId = claims.getTokenId();
+        if (tokenId == null
+                || (!currentFilter.mightContain(tokenId) && !previousFilter.mightContain(tokenId))) {
+            return false;
+        }
+
+        // Filter hit: either revoked or a false positive, Redis decides. Fail closed if it is unreachable.
+        try {
+            return redisTemplate.opsForZSet().score(REVOKED_TOKENS_KEY, tokenId) != null;
+        } catch (Exception e) {
+            log.warn("Could not confirm revocation of token {}: {}", tokenId, e.getMessage());
+            return true;
+        }
+    }
+
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        if (tokenId == null || (expiresAt != null && expiresAt.isBefore(Instant.now()))) {
+            return;
+        }
+
+        currentFilter.put(tokenId);
+        double score = expiresAt != null ? expiresAt.toEpochMilli() : Double.POSITIVE_INFINITY;
+        redisTemplate.opsForZSet().add(REVOKED_TOKENS_KEY, tokenId, score);
+        redisTemplate.opsForValue().increment(VERSION_KEY);
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, "T:" + tokenId);
+    }
+
+    public long currentSessionEpoch(Long userId) {
+        return sessionEpochs.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Invalidates every access token issued to the user so far.
+     */
+    public long incrementSessionEpoch(Long userId) {
+        Long epoch = redisTemplate.<String, String>opsForHash().increment(SESSION_EPOCHS_KEY, userId.toString(), 1);
+        sessionEpochs.merge(userId, epoch, Math::max);
+        redisTemplate.opsForValue().increment(VERSION_KEY);
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, "E:" + userId + ":" + epoch);
+        return epoch;
+    }
+
+    @Scheduled(fixedRateString = "${app.jwt.expiration-ms}", initialDelayString = "${app.jwt.expiration-ms}")
+    void rotate() {
+        previousFilter = currentFilter;
+        currentFilter = new RevocationBloomFilter(expectedRevocations, falsePositiveRate);
+
+        try {
+            ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+            zSet.removeRangeByScore(REVOKED_TOKENS_KEY, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+            // The new generation starts from Redis, so anything missed over pub/sub is picked up here at the latest
+            load(currentFilter);
+        } catch (Exception e) {
+            log.warn("Could not prune and reload revocations: {}", e.getMessage());
+        }
+    }
+
+    private void onMessage(String message) {
+        if (message.startsWith("T:")) {
+            currentFilter.put(message.substring(2));
+        } else if (message.startsWith("E:")) {
+            int separator = message.indexOf(':', 2);
+            Long userId = Long.valueOf(message.substring(2, separator));
+            Long epoch = Long.valueOf(message.substring(separator + 1));
+            sessionEpochs.merge(userId, epoch, Math::max);
+        }
+    }
+}
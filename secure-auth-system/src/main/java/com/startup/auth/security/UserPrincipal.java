@@ -5,13 +5,10 @@ import com.startup.auth.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
@@ -24,24 +21,36 @@ public class UserPrincipal implements UserDetails {
     @JsonIgnore
     private String password;
 
+    // Bit n set means the role with id n + 1, see RoleRegistry
+    private long roleMask;
+
     private Collection<? extends GrantedAuthority> authorities;
     private boolean isActive;
 
-    public static UserPrincipal create(User user) {
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                .collect(Collectors.toList());
+    public static UserPrincipal create(User user, RoleRegistry roleRegistry) {
+        long roleMask = roleRegistry.maskOf(user.getRoles());
 
         return new UserPrincipal(
                 user.getId(),
                 user.getEmail(),
                 user.getPhone(),
                 user.getPasswordHash(),
-                authorities,
+                roleMask,
+                roleRegistry.authoritiesOf(roleMask),
                 user.getIsActive()
         );
     }
 
+    public static UserPrincipal create(JwtClaims claims, RoleRegistry roleRegistry) {
+        return create(claims.getUserId(), claims.getEmail(), null, null, claims.getRoleMask(), claims.getActive(),
+                roleRegistry);
+    }
+
+    public static UserPrincipal create(Long id, String email, String phone, String password,
+                                       long roleMask, boolean isActive, RoleRegistry roleRegistry) {
+        return new UserPrincipal(id, email, phone, password, roleMask, roleRegistry.authoritiesOf(roleMask), isActive);
+    }
+
     @Override
     public String getUsername() {
         return email;
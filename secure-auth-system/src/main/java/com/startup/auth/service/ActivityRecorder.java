@@ -0,0 +1,172 @@
+package com.startup.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Coalesces {@code users.last_login} and {@code sessions.last_used_at} in memory and writes
+ * them as batched UPDATEs every flush interval, or earlier once enough entries are pending.
+ * Only the latest timestamp per row is kept; these columns may lag by one flush interval.
+ * A failed flush puts its entries back, unless a newer timestamp arrived meanwhile.
+ */
+@Component
+@Slf4j
+public class ActivityRecorder {
+
+    private static final String USER_LAST_LOGIN_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+    // expires_at is the partition key; without it the UPDATE probes every daily partition
+    private static final String SESSION_LAST_USED_SQL =
+            "UPDATE sessions SET last_used_at = ? WHERE id = ? AND expires_at = ? " +
+            "AND (last_used_at IS NULL OR last_used_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPending;
+
+    private final Map<Long, LocalDateTime> lastLogins = new ConcurrentHashMap<>();
+    private final Map<SessionRow, LocalDateTime> sessionLastUsed = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "activity-recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter rowsWritten;
+
+    public ActivityRecorder(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.activity.max-pending:5000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxPending = maxPending;
+        this.rowsWritten = meterRegistry.counter("auth.activity.rows_written");
+        meterRegistry.gauge("auth.activity.pending", this, recorder -> recorder.pendingCount());
+    }
+
+    public void recordLogin(Long userId, LocalDateTime timestamp) {
+        lastLogins.merge(userId, timestamp, ActivityRecorder::latest);
+        flushIfFull();
+    }
+
+    public void recordSessionUse(Long sessionId, LocalDateTime expiresAt, LocalDateTime timestamp) {
+        sessionLastUsed.merge(new SessionRow(sessionId, expiresAt), timestamp, ActivityRecorder::latest);
+        flushIfFull();
+    }
+
+    @Scheduled(fixedDelayString = "${app.activity.flush-interval-ms:2000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Object[]> logins = drain(lastLogins, (id, value) -> new Object[]{value, id, value});
+            List<Object[]> sessions = drain(sessionLastUsed,
+                    (row, value) -> new Object[]{value, row.id(), Timestamp.valueOf(row.expiresAt()), value});
+            if (logins.isEmpty() && sessions.isEmpty()) {
+                return;
+            }
+
+            try {
+                Integer updated = transactionTemplate.execute(status ->
+                        batchUpdate(USER_LAST_LOGIN_SQL, logins) + batchUpdate(SESSION_LAST_USED_SQL, sessions));
+                rowsWritten.increment(updated != null ? updated : 0);
+            } catch (Exception e) {
+                restore(lastLogins, logins, row -> (Long) row[1]);
+                restore(sessionLastUsed, sessions,
+                        row -> new SessionRow((Long) row[1], ((Timestamp) row[2]).toLocalDateTime()));
+                log.error("Failed to flush {} activity timestamps, keeping them for the next flush: {}",
+                        logins.size() + sessions.size(), e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    // At most one early flush is queued, so a failing database does not pile up flush tasks
+    private void flushIfFull() {
+        if (pendingCount() >= maxPending && !flushLock.isLocked() && flushQueued.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    // Rows already at a later timestamp are skipped by the UPDATE and not counted
+    private int batchUpdate(String sql, List<Object[]> args) {
+        if (args.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(sql, args)) {
+            if (count > 0) {
+                updated += count;
+            }
+        }
+        return updated;
+    }
+
+    private int pendingCount() {
+        return lastLogins.size() + sessionLastUsed.size();
+    }
+
+    // Removes each entry only if it was not overwritten meanwhile, so no newer timestamp is lost.
+    // The timestamp is the first parameter of each row.
+    private static <K> List<Object[]> drain(Map<K, LocalDateTime> pending, BiFunction<K, Timestamp, Object[]> toRow) {
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<K, LocalDateTime> entry : pending.entrySet()) {
+            K key = entry.getKey();
+            LocalDateTime timestamp = entry.getValue();
+            if (pending.remove(key, timestamp)) {
+                batch.add(toRow.apply(key, Timestamp.valueOf(timestamp)));
+            }
+        }
+        return batch;
+    }
+
+    private static <K> void restore(Map<K, LocalDateTime> pending, List<Object[]> batch, Function<Object[], K> toKey) {
+        for (Object[] row : batch) {
+            pending.merge(toKey.apply(row), ((Timestamp) row[0]).toLocalDateTime(), ActivityRecorder::latest);
+        }
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record SessionRow(Long id, LocalDateTime expiresAt) {
+    }
+}
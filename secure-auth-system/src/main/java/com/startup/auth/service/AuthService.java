@@ -1,32 +1,42 @@
 package com.startup.auth.service;
 
+import com.startup.auth.counters.AuthCounters;
 import com.startup.auth.dto.request.LoginRequest;
 import com.startup.auth.dto.request.RefreshTokenRequest;
 import com.startup.auth.dto.request.RegisterRequest;
+import com.startup.auth.dto.request.VerifyOtpRequest;
 import com.startup.auth.dto.response.AuthResponse;
-import com.startup.auth.entity.Role;
 import com.startup.auth.entity.Session;
 import com.startup.auth.entity.User;
 import com.startup.auth.exception.BadRequestException;
-import com.startup.auth.exception.ResourceNotFoundException;
-import com.startup.auth.repository.RoleRepository;
-import com.startup.auth.repository.SessionRepository;
+import com.startup.auth.metrics.AuthStage;
+import com.startup.auth.metrics.StageTimer;
+import com.startup.auth.otp.OtpService;
+import com.startup.auth.ratelimit.ClientAddress;
+import com.startup.auth.ratelimit.RateLimiter;
+import com.startup.auth.repository.UserRegistrationRepository;
 import com.startup.auth.repository.UserRepository;
+import com.startup.auth.security.JwtClaims;
 import com.startup.auth.security.JwtUtils;
+import com.startup.auth.security.RefreshTokenUtils;
+import com.startup.auth.security.RoleRegistry;
+import com.startup.auth.security.TokenRevocationService;
 import com.startup.auth.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -34,148 +44,238 @@ import java.util.Set;
 @Transactional
 public class AuthService {
 
+    private static final String DEFAULT_ROLE = "CUSTOMER";
+
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final SessionRepository sessionRepository;
+    private final UserRegistrationRepository userRegistrationRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final SessionService sessionService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ActivityRecorder activityRecorder;
+    private final RoleRegistry roleRegistry;
+    private final StageTimer stageTimer;
+    private final RateLimiter rateLimiter;
+    private final OtpService otpService;
+    private final AuthCounters authCounters;
 
     public AuthResponse registerUser(RegisterRequest registerRequest) {
-        // Check if user already exists
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new BadRequestException("Email is already in use!");
+        String email = registerRequest.getEmail();
+        String phone = registerRequest.getPhone();
+        String passwordHash = stageTimer.record(AuthStage.PASSWORD_HASHING,
+                () -> passwordEncoder.encode(registerRequest.getPassword()));
+        String refreshToken = RefreshTokenUtils.generate();
+        LocalDateTime now = LocalDateTime.now();
+
+        // User, default role and (for the database store) session are written in one statement;
+        // the unique constraints on users reject duplicates instead of prior exists checks
+        UserRegistrationRepository.NewSession newSession = sessionService.isDatabaseBacked()
+                ? new UserRegistrationRepository.NewSession(RefreshTokenUtils.hash(refreshToken),
+                        registerRequest.getDeviceId(), registerRequest.getDeviceInfo(), now,
+                        sessionService.newSessionExpiry(now))
+                : null;
+
+        UserRegistrationRepository.Registration registration;
+        try {
+            registration = stageTimer.record(AuthStage.USER_INSERT, () -> userRegistrationRepository.register(
+                    email, phone, passwordHash, roleRegistry.getRequiredId(DEFAULT_ROLE), newSession));
+        } catch (DuplicateKeyException e) {
+            throw toDuplicateUserError(e);
         }
 
-        if (registerRequest.getPhone() != null && userRepository.existsByPhone(registerRequest.getPhone())) {
-            throw new BadRequestException("Phone number is already in use!");
+        authCounters.usersCreated(1, now);
+        if (newSession == null) {
+            User user = User.builder().id(registration.userId()).email(email).phone(phone).build();
+            stageTimer.record(AuthStage.SESSION_INSERT,
+                    () -> sessionService.createSession(user, refreshToken,
+                            registerRequest.getDeviceId(), registerRequest.getDeviceInfo()));
+        } else {
+            sessionService.sessionCreated(Session.builder()
+                    .id(registration.sessionId())
+                    .userId(registration.userId())
+                    .refreshTokenHash(newSession.refreshTokenHash())
+                    .deviceId(newSession.deviceId())
+                    .deviceInfo(newSession.deviceInfo())
+                    .createdAt(newSession.createdAt())
+                    .lastUsedAt(newSession.createdAt())
+                    .expiresAt(newSession.expiresAt())
+                    .build());
         }
 
-        // Create new user account
-        User user = User.builder()
-                .email(registerRequest.getEmail())
-                .phone(registerRequest.getPhone())
-                .passwordHash(passwordEncoder.encode(registerRequest.getPassword()))
-                .isActive(true)
-                .mfaEnabled(false)
+        // Generate tokens
+        long roleMask = roleRegistry.maskOfNames(List.of(DEFAULT_ROLE));
+        UserPrincipal userPrincipal = UserPrincipal.create(registration.userId(), email, phone, passwordHash,
+                roleMask, true, roleRegistry);
+        String accessToken = stageTimer.record(AuthStage.TOKEN_SIGNING, () -> jwtUtils.generateAccessToken(userPrincipal));
+
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
+                .expiresIn(900) // 15 minutes
+                .userId(registration.userId())
+                .email(email)
+                .roles(roleRegistry.namesOf(roleMask))
                 .build();
+    }
+
+    private RuntimeException toDuplicateUserError(DuplicateKeyException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (detail.contains(UserRegistrationRepository.EMAIL_UNIQUE_CONSTRAINT)) {
+            return new BadRequestException("Email is already in use!");
+        }
+        if (detail.contains(UserRegistrationRepository.PHONE_UNIQUE_CONSTRAINT)) {
+            return new BadRequestException("Phone number is already in use!");
+        }
+        return e;
+    }
+
+    // Not transactional: the credentials query would otherwise keep its pooled connection checked
+    // out while the password waits for a hashing slot. The session insert runs in its own transaction.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponse authenticateUser(LoginRequest loginRequest) {
+        rateLimiter.checkLogin(loginRequest.getEmail(), ClientAddress.current());
+
+        Authentication authentication;
+        try {
+            authentication = stageTimer.record(AuthStage.CREDENTIAL_VERIFICATION,
+                    () -> authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(
+                                    loginRequest.getEmail(),
+                                    loginRequest.getPassword()
+                            )
+                    ));
+        } catch (AuthenticationException e) {
+            rateLimiter.recordLoginFailure(loginRequest.getEmail());
+            throw e;
+        }
 
-        // Assign default role
-        Set<Role> roles = new HashSet<>();
-        Role userRole = roleRepository.findByName("CUSTOMER")
-                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-        roles.add(userRole);
-        user.setRoles(roles);
+        // The authenticated principal already carries everything the response needs;
+        // the session only needs a reference to the user row
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        User user = User.builder().id(userPrincipal.getId()).build();
 
-        User savedUser = userRepository.save(user);
+        // Update last login (written asynchronously in batches)
+        stageTimer.record(AuthStage.LAST_LOGIN, () -> activityRecorder.recordLogin(userPrincipal.getId(), LocalDateTime.now()));
 
         // Generate tokens
-        String accessToken = jwtUtils.generateTokenFromUserId(savedUser.getId());
-        String refreshToken = jwtUtils.generateRefreshToken(savedUser.getId());
+        String accessToken = stageTimer.record(AuthStage.TOKEN_SIGNING, () -> jwtUtils.generateJwtToken(authentication));
+        String refreshToken = RefreshTokenUtils.generate();
 
         // Create session
-        Session session = sessionService.createSession(savedUser, refreshToken, registerRequest.getDeviceInfo());
+        stageTimer.record(AuthStage.SESSION_INSERT,
+                () -> sessionService.createSession(user, refreshToken,
+                        loginRequest.getDeviceId(), loginRequest.getDeviceInfo()));
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken)
                 .tokenType("Bearer")
                 .expiresIn(900) // 15 minutes
-                .userId(savedUser.getId())
-                .email(savedUser.getEmail())
-                .roles(savedUser.getRoles().stream().map(Role::getName).toList())
+                .userId(userPrincipal.getId())
+                .email(userPrincipal.getEmail())
+                .roles(roleRegistry.namesOf(userPrincipal.getRoleMask()))
                 .build();
     }
 
-    public AuthResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getEmail(),
-                        loginRequest.getPassword()
-                )
-        );
-
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
+    public AuthResponse authenticateWithOtp(VerifyOtpRequest verifyOtpRequest) {
+        String phone = verifyOtpRequest.getPhoneNumber().trim();
+        boolean verified = stageTimer.record(AuthStage.OTP_VERIFICATION,
+                () -> otpService.verifyOtp(phone, verifyOtpRequest.getOtp()));
+        if (!verified) {
+            throw new BadRequestException("Invalid or expired OTP!");
+        }
 
-        // Update last login
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        UserPrincipal userPrincipal = stageTimer.record(AuthStage.USER_LOAD, () -> userDetailsService.loadUserByPhone(phone))
+                .filter(UserPrincipal::isEnabled)
+                .orElseThrow(() -> new BadRequestException("Invalid or expired OTP!"));
+        User user = userRepository.getReferenceById(userPrincipal.getId());
 
-        // Generate tokens
-        String accessToken = jwtUtils.generateJwtToken(authentication);
-        String refreshToken = jwtUtils.generateRefreshToken(userPrincipal.getId());
+        stageTimer.record(AuthStage.LAST_LOGIN, () -> activityRecorder.recordLogin(userPrincipal.getId(), LocalDateTime.now()));
 
-        // Create session
-        Session session = sessionService.createSession(user, refreshToken, loginRequest.getDeviceInfo());
+        String accessToken = stageTimer.record(AuthStage.TOKEN_SIGNING, () -> jwtUtils.generateAccessToken(userPrincipal));
+        String refreshToken = RefreshTokenUtils.generate();
+        stageTimer.record(AuthStage.SESSION_INSERT,
+                () -> sessionService.createSession(user, refreshToken,
+                        verifyOtpRequest.getDeviceId(), verifyOtpRequest.getDeviceInfo()));
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken)
                 .tokenType("Bearer")
                 .expiresIn(900) // 15 minutes
-                .userId(user.getId())
-                .email(user.getEmail())
-                .roles(user.getRoles().stream().map(Role::getName).toList())
+                .userId(userPrincipal.getId())
+                .email(userPrincipal.getEmail())
+                .phone(userPrincipal.getPhone())
+                .roles(roleRegistry.namesOf(userPrincipal.getRoleMask()))
                 .build();
     }
 
     public AuthResponse refreshToken(RefreshTokenRequest tokenRefreshRequest) {
         String requestRefreshToken = tokenRefreshRequest.getRefreshToken();
 
-        // Validate refresh token
-        if (!jwtUtils.validateJwtToken(requestRefreshToken)) {
-            throw new BadRequestException("Invalid refresh token!");
-        }
+        // Legacy JWT refresh tokens are still verified before the session lookup
+        if (RefreshTokenUtils.isLegacyJwt(requestRefreshToken)) {
+            JwtClaims claims = jwtUtils.validateAndParse(requestRefreshToken)
+                    .orElseThrow(() -> new BadRequestException("Invalid refresh token!"));
 
-        // Check token type
-        String tokenType = jwtUtils.getTokenType(requestRefreshToken);
-        if (!"REFRESH".equals(tokenType)) {
-            throw new BadRequestException("Token is not a refresh token!");
+            if (!claims.isRefreshToken()) {
+                throw new BadRequestException("Token is not a refresh token!");
+            }
         }
 
         // Find session by refresh token
-        Session session = sessionRepository.findByRefreshTokenAndRevokedFalse(requestRefreshToken)
+        Session session = stageTimer.record(AuthStage.REFRESH_LOOKUP,
+                        () -> sessionService.findActiveSession(requestRefreshToken))
                 .orElseThrow(() -> new BadRequestException("Refresh token not found or has been revoked!"));
 
         // Check if session is expired
         if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
-            sessionService.revokeSession(session.getId());
+            sessionService.revokeSession(session);
             throw new BadRequestException("Refresh token was expired. Please make a new signin request!");
         }
 
-        // Generate new access token
-        Long userId = jwtUtils.getUserIdFromJwtToken(requestRefreshToken);
-        String newAccessToken = jwtUtils.generateTokenFromUserId(userId);
+        // Generate new access token from the current user snapshot
+        UserPrincipal userPrincipal = stageTimer.record(AuthStage.USER_LOAD,
+                () -> (UserPrincipal) userDetailsService.loadUserById(session.getUserId()));
+        String newAccessToken = stageTimer.record(AuthStage.TOKEN_SIGNING, () -> jwtUtils.generateAccessToken(userPrincipal));
 
         // Update session last used time
-        session.setLastUsedAt(LocalDateTime.now());
-        sessionRepository.save(session);
-
-        // Get user details
-        User user = session.getUser();
+        stageTimer.record(AuthStage.SESSION_TOUCH, () -> sessionService.recordUsage(session));
 
         return AuthResponse.builder()
                 .accessToken(newAccessToken)
                 .refreshToken(requestRefreshToken)
                 .tokenType("Bearer")
                 .expiresIn(900) // 15 minutes
-                .userId(user.getId())
-                .email(user.getEmail())
-                .roles(user.getRoles().stream().map(Role::getName).toList())
+                .userId(userPrincipal.getId())
+                .email(userPrincipal.getEmail())
+                .roles(roleRegistry.namesOf(userPrincipal.getRoleMask()))
                 .build();
     }
 
     public void logout(String refreshToken) {
-        Optional<Session> sessionOpt = sessionRepository.findByRefreshTokenAndRevokedFalse(refreshToken);
+        logout(refreshToken, null);
+    }
+
+    public void logout(String refreshToken, String accessToken) {
+        Optional<Session> sessionOpt = sessionService.findActiveSession(refreshToken);
         if (sessionOpt.isPresent()) {
-            sessionService.revokeSession(sessionOpt.get().getId());
+            sessionService.revokeSession(sessionOpt.get());
+        }
+
+        // Deny the presented access token for the rest of its lifetime
+        if (accessToken != null) {
+            jwtUtils.validateAndParse(accessToken)
+                    .filter(JwtClaims::isAccessToken)
+                    .ifPresent(claims -> tokenRevocationService.revokeToken(claims.getTokenId(), claims.getExpiresAt()));
         }
     }
 
     public void logoutFromAllDevices(Long userId) {
         sessionService.revokeAllUserSessions(userId);
+        tokenRevocationService.incrementSessionEpoch(userId);
     }
 }
\ No newline at end of file
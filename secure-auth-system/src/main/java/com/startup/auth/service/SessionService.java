@@ -0,0 +1,164 @@
+package com.startup.auth.service;
+
+import com.startup.auth.counters.AuthCounters;
+import com.startup.auth.entity.Session;
+import com.startup.auth.entity.User;
+import com.startup.auth.security.RefreshTokenUtils;
+import com.startup.auth.session.SessionIndex;
+import com.startup.auth.session.SessionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class SessionService {
+
+    private final SessionStore sessionStore;
+    private final AuthCounters authCounters;
+    private final SessionIndex sessionIndex;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.refresh-expiration-ms}")
+    private long refreshExpirationMs;
+
+    /**
+     * Starts a session for the device, reusing the device's live session if it has one: its row
+     * and index entry move to the new refresh token and expiry, and the previous token stops working.
+     * Devices are recognised by the {@code deviceId} the client generates per install; sign-ins
+     * without one always start a new session.
+     */
+    public Session createSession(User user, String refreshToken, String deviceId, String deviceInfo) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = newSessionExpiry(now);
+        if (StringUtils.hasText(deviceId)) {
+            Optional<Session> reused = rotateDeviceSession(user.getId(), refreshToken, deviceId, now, expiresAt);
+            if (reused.isPresent()) {
+                return reused.get();
+            }
+        }
+
+        Session session = sessionStore.create(user, refreshToken, deviceId, deviceInfo, expiresAt);
+        sessionCreated(session);
+        return session;
+    }
+
+    private Optional<Session> rotateDeviceSession(Long userId, String refreshToken, String deviceId,
+                                                  LocalDateTime now, LocalDateTime expiresAt) {
+        Optional<SessionIndex.IndexedSession> existing;
+        try {
+            existing = sessionIndex.findByDevice(userId, deviceId);
+        } catch (Exception e) {
+            log.warn("Could not look up the device session of user {}: {}", userId, e.getMessage());
+            return Optional.empty();
+        }
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+
+        SessionIndex.IndexedSession previous = existing.get();
+        byte[] previousHash = HexFormat.of().parseHex(previous.id());
+        boolean rotated = sessionStore.rotate(userId, previousHash, refreshToken, expiresAt);
+        try {
+            sessionIndex.remove(userId, previousHash);
+        } catch (Exception e) {
+            // The stale entry is dropped when it expires; its token no longer works either way
+            log.warn("Could not unindex the previous device session of user {}: {}", userId, e.getMessage());
+        }
+        if (!rotated) {
+            // Revoked or expired since it was indexed
+            return Optional.empty();
+        }
+        // Rotations into another expiry day move the row between sessions partitions
+        boolean moved = !previous.expiresAt().toLocalDate().equals(expiresAt.toLocalDate());
+        meterRegistry.counter("auth.session.rotations", "partition", moved ? "moved" : "same").increment();
+
+        Session session = Session.builder()
+                .userId(userId)
+                .refreshTokenHash(RefreshTokenUtils.hash(refreshToken))
+                .deviceId(previous.deviceId())
+                .deviceInfo(previous.deviceInfo())
+                .deviceType(previous.deviceType())
+                .createdAt(previous.createdAt())
+                .lastUsedAt(now)
+                .expiresAt(expiresAt)
+                .revoked(false)
+                .build();
+        index(session);
+        return Optional.of(session);
+    }
+
+    /**
+     * Counts and indexes a session written to the store, including ones inserted outside
+     * {@link #createSession}, and revokes the least recently used sessions of the user beyond
+     * the configured caps.
+     */
+    public void sessionCreated(Session session) {
+        authCounters.sessionOpened(session.getUserId(), session.getDeviceType());
+        index(session);
+    }
+
+    private void index(Session session) {
+        List<SessionIndex.EvictedSession> evicted;
+        try {
+            evicted = sessionIndex.add(session);
+        } catch (Exception e) {
+            log.warn("Could not index session for user {}, session caps not applied: {}", session.getUserId(), e.getMessage());
+            return;
+        }
+        for (SessionIndex.EvictedSession evictedSession : evicted) {
+            sessionStore.revokeByTokenHash(session.getUserId(), evictedSession.refreshTokenHash());
+            authCounters.sessionClosed(session.getUserId(), evictedSession.deviceType());
+        }
+        if (!evicted.isEmpty()) {
+            log.debug("Evicted {} sessions of user {} over the session cap", evicted.size(), session.getUserId());
+        }
+    }
+
+    public List<SessionIndex.IndexedSession> listActiveSessions(Long userId) {
+        return sessionIndex.list(userId);
+    }
+
+    public LocalDateTime newSessionExpiry(LocalDateTime createdAt) {
+        return createdAt.plus(refreshExpirationMs, ChronoUnit.MILLIS);
+    }
+
+    public boolean isDatabaseBacked() {
+        return sessionStore.isDatabaseBacked();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Session> findActiveSession(String refreshToken) {
+        return sessionStore.findActive(refreshToken);
+    }
+
+    public void recordUsage(Session session) {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.touch(session, now);
+        sessionIndex.touch(session, now);
+    }
+
+    public void revokeSession(Session session) {
+        sessionStore.revoke(session);
+        sessionIndex.remove(session.getUserId(), session.getRefreshTokenHash());
+        authCounters.sessionClosed(session.getUserId(), session.getDeviceType());
+    }
+
+    public void revokeAllUserSessions(Long userId) {
+        sessionStore.revokeAllForUser(userId);
+        sessionIndex.removeAll(userId);
+        authCounters.allSessionsClosed(userId);
+    }
+}
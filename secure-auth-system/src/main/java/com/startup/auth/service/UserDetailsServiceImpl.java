@@ -1,35 +1,61 @@
 package com.startup.auth.service;
 
-import com.startup.auth.entity.User;
-import com.startup.auth.repository.UserRepository;
+import com.startup.auth.cache.UserPrincipalCache;
+import com.startup.auth.repository.UserCredentialsRepository;
+import com.startup.auth.repository.UserCredentialsRepository.UserCredentials;
+import com.startup.auth.security.RoleRegistry;
 import com.startup.auth.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserCredentialsRepository userCredentialsRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final RoleRegistry roleRegistry;
 
+    // Not @Transactional: a cache hit must not check out a connection
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + email));
-
-        return UserPrincipal.create(user);
+        return userPrincipalCache.getByEmail(email).orElseGet(() -> {
+            UserCredentials user = userCredentialsRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + email));
+            return cacheLocally(toPrincipal(user));
+        });
     }
 
-    @Transactional
+    // The generation is read first so an eviction racing the query keeps the row out of Redis
     public UserDetails loadUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with id: " + id));
+        return userPrincipalCache.getById(id).orElseGet(() -> {
+            long generation = userPrincipalCache.generation(id);
+            UserCredentials user = userCredentialsRepository.findById(id)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with id: " + id));
+            UserPrincipal principal = toPrincipal(user);
+            userPrincipalCache.put(principal, generation);
+            return principal;
+        });
+    }
+
+    // Phone numbers are not a cache key, so this always reads the database
+    public Optional<UserPrincipal> loadUserByPhone(String phone) {
+        return userCredentialsRepository.findByPhone(phone).map(user -> cacheLocally(toPrincipal(user)));
+    }
+
+    private UserPrincipal toPrincipal(UserCredentials user) {
+        return UserPrincipal.create(user.id(), user.email(), user.phone(), user.passwordHash(),
+                roleRegistry.maskOfIds(user.roleIds()), user.active(), roleRegistry);
+    }
 
-        return UserPrincipal.create(user);
+    // The id is unknown until the row is read, so these loads cannot be guarded in Redis
+    private UserPrincipal cacheLocally(UserPrincipal principal) {
+        userPrincipalCache.putLocal(principal);
+        return principal;
     }
 }
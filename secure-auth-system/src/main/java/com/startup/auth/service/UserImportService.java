@@ -0,0 +1,363 @@
+package com.startup.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.startup.auth.counters.AuthCounters;
+import com.startup.auth.dto.response.ImportRowResult;
+import com.startup.auth.exception.BadRequestException;
+import com.startup.auth.repository.UserImportRepository;
+import com.startup.auth.security.BoundedPasswordEncoder;
+import com.startup.auth.security.RoleRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk user onboarding. The body is read line by line and handled in chunks: each chunk is
+ * validated, its passwords are hashed on a small dedicated pool, and it is loaded in its
+ * own transaction through {@link UserImportRepository}. Results are handed to the caller per
+ * chunk, in line order, so only one chunk is held in memory.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    // Mirror the users table check constraints, which would otherwise abort a whole chunk
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[A-Za-z0-9._%-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,4}$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[1-9]\\d{1,14}$");
+
+    private final UserImportRepository userImportRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final RoleRegistry roleRegistry;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final AuthCounters authCounters;
+    private final int chunkSize;
+    private final ExecutorService hashingPool;
+
+    public UserImportService(UserImportRepository userImportRepository,
+                             PasswordEncoder passwordEncoder,
+                             RoleRegistry roleRegistry,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             AuthCounters authCounters,
+                             @Value("${app.import.chunk-size:1000}") int chunkSize,
+                             @Value("${app.import.hashing-threads:2}") int hashingThreads) {
+        this.userImportRepository = userImportRepository;
+        // Imports schedule their own hashing rather than queueing behind interactive logins
+        this.passwordEncoder = passwordEncoder instanceof BoundedPasswordEncoder bounded
+                ? bounded.getDelegate()
+                : passwordEncoder;
+        this.roleRegistry = roleRegistry;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.authCounters = authCounters;
+        this.chunkSize = chunkSize;
+
+        // Small and fixed, shared by all running imports, so they leave most cores to interactive logins
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(Math.max(1, hashingThreads), runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void importUsers(InputStream body, Format format, String roleName,
+                            Consumer<List<ImportRowResult>> resultSink) throws IOException {
+        Long roleId = resolveRoleId(roleName);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowParser parser = format == Format.CSV ? new CsvRowParser(reader.readLine()) : this::parseJsonRow;
+
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = format == Format.CSV ? 1 : 0;
+        int created = 0;
+        int failed = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(parser.parse(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                List<ImportRowResult> results = processChunk(chunk, roleId);
+                int chunkCreated = countCreated(results);
+                authCounters.usersCreated(chunkCreated, LocalDateTime.now());
+                created += chunkCreated;
+                failed += results.size() - chunkCreated;
+                resultSink.accept(results);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            List<ImportRowResult> results = processChunk(chunk, roleId);
+            int chunkCreated = countCreated(results);
+            authCounters.usersCreated(chunkCreated, LocalDateTime.now());
+            created += chunkCreated;
+            failed += results.size() - chunkCreated;
+            resultSink.accept(results);
+        }
+
+        log.info("User import finished: {} created, {} failed", created, failed);
+    }
+
+    private Long resolveRoleId(String roleName) {
+        try {
+            return roleRegistry.getRequiredId(roleName);
+        } catch (IllegalStateException e) {
+            throw new BadRequestException("Unknown role: " + roleName);
+        }
+    }
+
+    private List<ImportRowResult> processChunk(List<ImportRow> rows, Long roleId) {
+        List<ImportRowResult> results = new ArrayList<>(rows.size());
+        List<ImportRow> accepted = new ArrayList<>(rows.size());
+        Set<String> emails = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+
+        for (ImportRow row : rows) {
+            String error = row.error() != null ? row.error() : validate(row);
+            if (error == null && emails.contains(row.email())) {
+                error = "Email is already in use!";
+            } else if (error == null && row.phone() != null && phones.contains(row.phone())) {
+                error = "Phone number is already in use!";
+            }
+
+            if (error != null) {
+                results.add(ImportRowResult.failed(row.lineNumber(), error));
+            } else {
+                emails.add(row.email());
+                if (row.phone() != null) {
+                    phones.add(row.phone());
+                }
+                accepted.add(row);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            load(accepted, roleId, results);
+        }
+
+        results.sort(Comparator.comparingLong(ImportRowResult::getLine));
+        return results;
+    }
+
+    private void load(List<ImportRow> rows, Long roleId, List<ImportRowResult> results) {
+        try {
+            List<UserImportRepository.StagedUser> staged = hashPasswords(rows);
+            List<UserImportRepository.Outcome> outcomes =
+                    transactionTemplate.execute(status -> userImportRepository.load(staged, roleId));
+
+            for (UserImportRepository.Outcome outcome : outcomes) {
+                if (outcome.userId() != null) {
+                    results.add(ImportRowResult.created(outcome.lineNumber(), outcome.userId()));
+                } else {
+                    results.add(ImportRowResult.failed(outcome.lineNumber(), outcome.emailTaken()
+                            ? "Email is already in use!"
+                            : "Phone number is already in use!"));
+                }
+            }
+        } catch (DataAccessException e) {
+            log.error("User import chunk starting at line {} failed: {}", rows.get(0).lineNumber(), e.getMessage());
+            for (ImportRow row : rows) {
+                results.add(ImportRowResult.failed(row.lineNumber(), "Import failed, please retry this row"));
+            }
+        }
+    }
+
+    private List<UserImportRepository.StagedUser> hashPasswords(List<ImportRow> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            hashes.add(hashingPool.submit(() -> passwordEncoder.encode(row.password())));
+        }
+
+        List<UserImportRepository.StagedUser> staged = new ArrayList<>(rows.size());
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRow row = rows.get(i);
+                staged.add(new UserImportRepository.StagedUser(row.lineNumber(), row.email(), row.phone(), hashes.get(i).get()));
+            }
+        } catch (InterruptedException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return staged;
+    }
+
+    // Same rules as RegisterRequest and the users table constraints
+    private static String validate(ImportRow row) {
+        if (row.email() == null) {
+            return "Email is required";
+        }
+        if (row.email().length() > 255 || !EMAIL_PATTERN.matcher(row.email()).matches()) {
+            return "Email should be valid";
+        }
+        if (row.password() == null) {
+            return "Password is required";
+        }
+        if (row.password().length() < 6 || row.password().length() > 40) {
+            return "Password must be between 6 and 40 characters";
+        }
+        if (row.phone() != null && !PHONE_PATTERN.matcher(row.phone()).matches()) {
+            return "Phone number should be valid";
+        }
+        return null;
+    }
+
+    private static int countCreated(List<ImportRowResult> results) {
+        int created = 0;
+        for (ImportRowResult result : results) {
+            if (result.getStatus() == ImportRowResult.Status.CREATED) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private ImportRow parseJsonRow(long lineNumber, String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            return new ImportRow(lineNumber, text(node, "email"), text(node, "phone"), text(node, "password"), null);
+        } catch (IOException e) {
+            return ImportRow.malformed(lineNumber);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : blankToNull(value.asText());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private record ImportRow(long lineNumber, String email, String phone, String password, String error) {
+
+        static ImportRow malformed(long lineNumber) {
+            return new ImportRow(lineNumber, null, null, null, "Malformed row");
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ImportRow parse(long lineNumber, String line);
+    }
+
+    /**
+     * Header-driven CSV with columns {@code email}, {@code password} and optionally {@code phone},
+     * in any order. Quoted fields may contain commas and doubled quotes but not line breaks.
+     */
+    private static final class CsvRowParser implements RowParser {
+
+        private final int emailIndex;
+        private final int phoneIndex;
+        private final int passwordIndex;
+
+        CsvRowParser(String header) {
+            if (header == null) {
+                throw new BadRequestException("CSV header is missing");
+            }
+            List<String> columns = split(header);
+            if (columns == null) {
+                throw new BadRequestException("CSV header is malformed");
+            }
+            List<String> names = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                names.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+            this.emailIndex = names.indexOf("email");
+            this.phoneIndex = names.indexOf("phone");
+            this.passwordIndex = names.indexOf("password");
+            if (emailIndex < 0 || passwordIndex < 0) {
+                throw new BadRequestException("CSV header must contain email and password columns");
+            }
+        }
+
+        @Override
+        public ImportRow parse(long lineNumber, String line) {
+            List<String> fields = split(line);
+            if (fields == null) {
+                return ImportRow.malformed(lineNumber);
+            }
+            return new ImportRow(lineNumber, field(fields, emailIndex), field(fields, phoneIndex),
+                    field(fields, passwordIndex), null);
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? blankToNull(fields.get(index)) : null;
+        }
+
+        // Returns null for an unterminated quoted field
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
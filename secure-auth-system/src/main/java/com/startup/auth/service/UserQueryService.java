@@ -0,0 +1,109 @@
+package com.startup.auth.service;
+
+import com.startup.auth.dto.response.UserPage;
+import com.startup.auth.dto.response.UserSummary;
+import com.startup.auth.exception.BadRequestException;
+import com.startup.auth.repository.UserCursor;
+import com.startup.auth.repository.UserQueryRepository;
+import com.startup.auth.security.RoleRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Admin listings of users: keyset-paginated pages and a streaming export.
+ */
+@Service
+public class UserQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final UserQueryRepository userQueryRepository;
+    private final RoleRegistry roleRegistry;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int exportFetchSize;
+
+    public UserQueryService(UserQueryRepository userQueryRepository,
+                            RoleRegistry roleRegistry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.admin.export.fetch-size:1000}") int exportFetchSize) {
+        this.userQueryRepository = userQueryRepository;
+        this.roleRegistry = roleRegistry;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    public UserPage findByRole(String roleName, String cursor, int limit) {
+        Long roleId = resolveRoleId(roleName);
+        return page(cursor, limit, (after, size) -> userQueryRepository.findByRoleId(roleId, after, size),
+                UserSummary::getCreatedAt);
+    }
+
+    public UserPage findByActive(boolean active, String cursor, int limit) {
+        return page(cursor, limit, (after, size) -> userQueryRepository.findByIsActive(active, after, size),
+                UserSummary::getCreatedAt);
+    }
+
+    public UserPage findByLastLogin(LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        return page(cursor, limit, (after, size) -> userQueryRepository.findByLastLoginBetween(from, to, after, size),
+                UserSummary::getLastLogin);
+    }
+
+    /**
+     * Passes every matching user to {@code sink} as it is read, holding one connection for
+     * the duration of the export.
+     */
+    public void export(String roleName, Boolean active, Consumer<UserSummary> sink) {
+        Long roleId = roleName != null ? resolveRoleId(roleName) : null;
+        readOnlyTransaction.executeWithoutResult(
+                status -> userQueryRepository.streamAll(roleId, active, exportFetchSize, sink));
+    }
+
+    // Reads one row past the page to tell whether another page follows
+    private UserPage page(String cursor, int limit, PageQuery query, Function<UserSummary, LocalDateTime> position) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserSummary> rows = query.fetch(decodeCursor(cursor), size + 1);
+        if (rows.size() <= size) {
+            return new UserPage(rows, null);
+        }
+
+        List<UserSummary> items = rows.subList(0, size);
+        UserSummary last = items.get(size - 1);
+        return new UserPage(items, new UserCursor(position.apply(last), last.getId()).encode());
+    }
+
+    private UserCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private Long resolveRoleId(String roleName) {
+        try {
+            return roleRegistry.getRequiredId(roleName);
+        } catch (IllegalStateException e) {
+            throw new BadRequestException("Unknown role: " + roleName);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<UserSummary> fetch(UserCursor after, int limit);
+    }
+}
@@ -0,0 +1,87 @@
+package com.startup.auth.session;
+
+import com.startup.auth.entity.Session;
+import com.startup.auth.entity.User;
+import com.startup.auth.repository.SessionRepository;
+import com.startup.auth.security.RefreshTokenUtils;
+import com.startup.auth.service.ActivityRecorder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "app.session.store", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class JpaSessionStore implements SessionStore {
+
+    private final SessionRepository sessionRepository;
+    private final ActivityRecorder activityRecorder;
+
+    @Override
+    public Session create(User user, String refreshToken, String deviceId, String deviceInfo, LocalDateTime expiresAt) {
+        Session.SessionBuilder builder = Session.builder()
+                .user(user)
+                .userId(user.getId())
+                .deviceId(deviceId)
+                .deviceInfo(deviceInfo)
+                .expiresAt(expiresAt)
+                .lastUsedAt(LocalDateTime.now())
+                .revoked(false);
+
+        if (RefreshTokenUtils.isLegacyJwt(refreshToken)) {
+            builder.refreshToken(refreshToken);
+        } else {
+            builder.refreshTokenHash(RefreshTokenUtils.hash(refreshToken));
+        }
+
+        return sessionRepository.save(builder.build());
+    }
+
+    @Override
+    public Optional<Session> findActive(String refreshToken) {
+        if (RefreshTokenUtils.isLegacyJwt(refreshToken)) {
+            return sessionRepository.findByRefreshTokenAndRevokedFalse(refreshToken);
+        }
+        return sessionRepository.findByRefreshTokenHashAndRevokedFalse(RefreshTokenUtils.hash(refreshToken));
+    }
+
+    @Override
+    public boolean rotate(Long userId, byte[] previousTokenHash, String refreshToken, LocalDateTime expiresAt) {
+        return sessionRepository.rotateRefreshToken(userId, previousTokenHash, RefreshTokenUtils.hash(refreshToken),
+                expiresAt, LocalDateTime.now()) > 0;
+    }
+
+    // Deliberately not applied to the managed entity, which would flush an UPDATE at commit
+    @Override
+    public void touch(Session session, LocalDateTime lastUsedAt) {
+        activityRecorder.recordSessionUse(session.getId(), session.getExpiresAt(), lastUsedAt);
+    }
+
+    // Not saved through the entity: merging it would reselect the row and rewrite every column
+    @Override
+    public void revoke(Session session) {
+        sessionRepository.revokeById(session.getId(), session.getExpiresAt(), LocalDateTime.now());
+        session.setRevoked(true);
+    }
+
+    @Override
+    public void revokeByTokenHash(Long userId, byte[] refreshTokenHash) {
+        sessionRepository.revokeByRefreshTokenHash(refreshTokenHash, LocalDateTime.now());
+    }
+
+    @Override
+    public void revokeAllForUser(Long userId) {
+        int revoked = sessionRepository.revokeAllUserSessions(userId, LocalDateTime.now());
+        log.debug("Revoked {} sessions for user {}", revoked, userId);
+    }
+
+    @Override
+    public boolean isDatabaseBacked() {
+        return true;
+    }
+}
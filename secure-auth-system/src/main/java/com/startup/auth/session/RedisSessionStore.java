@@ -0,0 +1,309 @@
+package com.startup.auth.session;
+
+import com.startup.auth.entity.Session;
+import com.startup.auth.entity.User;
+import com.startup.auth.security.RefreshTokenUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps live sessions in Redis, keyed by refresh-token digest and expiring with the session.
+ * Postgres is updated through {@link SessionWriteBehindQueue}; after Redis loses its data the
+ * store is rebuilt from Postgres on startup.
+ * <p>
+ * Each change is queued for Postgres before Redis is touched. A full queue then fails the
+ * request with nothing changed, instead of leaving a change in Redis that Postgres never sees
+ * and a rebuild would undo.
+ */
+@Component
+@ConditionalOnProperty(name = "app.session.store", havingValue = "redis")
+@Slf4j
+public class RedisSessionStore implements SessionStore {
+
+    private static final String SESSION_KEY_PREFIX = "auth:session:";
+    private static final String USER_SESSIONS_KEY_PREFIX = "auth:user-sessions:";
+    private static final String LOADED_MARKER_KEY = "auth:sessions:loaded";
+    private static final String REBUILD_LOCK_KEY = "auth:sessions:rebuild-lock";
+
+    private static final String ACTIVE_SESSIONS_SQL =
+            "SELECT id, user_id, refresh_token, refresh_token_hash, device_id, device_info, device_type, created_at, expires_at, last_used_at " +
+            "FROM sessions WHERE revoked = false AND expires_at > ? ORDER BY expires_at";
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    // KEYS: session. ARGV: last used. A session revoked, rotated or expired meanwhile is not recreated.
+    private static final RedisScript<Long> TOUCH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('HSET', KEYS[1], 'lastUsedAt', ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final StringRedisTemplate redisTemplate;
+    private final SessionWriteBehindQueue writeBehindQueue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public RedisSessionStore(StringRedisTemplate redisTemplate,
+                             SessionWriteBehindQueue writeBehindQueue,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.writeBehindQueue = writeBehindQueue;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public Session create(User user, String refreshToken, String deviceId, String deviceInfo, LocalDateTime expiresAt) {
+        LocalDateTime now = LocalDateTime.now();
+        Session session = Session.builder()
+                .userId(user.getId())
+                .refreshTokenHash(RefreshTokenUtils.hash(refreshToken))
+                .deviceId(deviceId)
+                .deviceInfo(deviceInfo)
+                .createdAt(now)
+                .expiresAt(expiresAt)
+                .lastUsedAt(now)
+                .revoked(false)
+                .build();
+
+        writeBehindQueue.enqueue(SessionWrite.create(session));
+        writeAll(List.of(session));
+        return session;
+    }
+
+    @Override
+    public Optional<Session> findActive(String refreshToken) {
+        return findByHash(RefreshTokenUtils.hash(refreshToken));
+    }
+
+    @Override
+    public boolean rotate(Long userId, byte[] previousTokenHash, String refreshToken, LocalDateTime expiresAt) {
+        Optional<Session> existing = findByHash(previousTokenHash).filter(session -> session.getUserId().equals(userId));
+        if (existing.isEmpty()) {
+            return false;
+        }
+
+        Session session = existing.get();
+        String previousHex = HEX.formatHex(previousTokenHash);
+        session.setRefreshTokenHash(RefreshTokenUtils.hash(refreshToken));
+        session.setExpiresAt(expiresAt);
+        session.setLastUsedAt(LocalDateTime.now());
+
+        writeBehindQueue.enqueue(SessionWrite.rotate(session, previousTokenHash));
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.delete(SESSION_KEY_PREFIX + previousHex);
+                ops.opsForSet().remove(USER_SESSIONS_KEY_PREFIX + userId, previousHex);
+                return null;
+            }
+        });
+        writeAll(List.of(session));
+        return true;
+    }
+
+    private Optional<Session> findByHash(byte[] hash) {
+        Map<String, String> fields = redisTemplate.<String, String>opsForHash().entries(sessionKey(hash));
+        // A partial entry is as good as none
+        if (fields.get("userId") == null || fields.get("expiresAt") == null) {
+            return Optional.empty();
+        }
+
+        String id = fields.get("id");
+        String deviceType = fields.get("deviceType");
+        return Optional.of(Session.builder()
+                .id(id != null ? Long.valueOf(id) : null)
+                .userId(Long.valueOf(fields.get("userId")))
+                .refreshTokenHash(hash)
+                .deviceId(fields.get("deviceId"))
+                .deviceInfo(fields.get("deviceInfo"))
+                .deviceType(deviceType != null ? Session.DeviceType.valueOf(deviceType) : null)
+                .createdAt(LocalDateTime.parse(fields.get("createdAt")))
+                .expiresAt(LocalDateTime.parse(fields.get("expiresAt")))
+                .lastUsedAt(LocalDateTime.parse(fields.get("lastUsedAt")))
+                .revoked(false)
+                .build());
+    }
+
+    @Override
+    public void touch(Session session, LocalDateTime lastUsedAt) {
+        writeBehindQueue.enqueue(SessionWrite.touch(session, lastUsedAt));
+        session.setLastUsedAt(lastUsedAt);
+        redisTemplate.execute(TOUCH_SCRIPT, List.of(sessionKey(session.getRefreshTokenHash())), lastUsedAt.toString());
+    }
+
+    @Override
+    public void revoke(Session session) {
+        writeBehindQueue.enqueue(SessionWrite.revoke(session, LocalDateTime.now()));
+        session.setRevoked(true);
+        String hashHex = HEX.formatHex(session.getRefreshTokenHash());
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.delete(SESSION_KEY_PREFIX + hashHex);
+                ops.opsForSet().remove(USER_SESSIONS_KEY_PREFIX + session.getUserId(), hashHex);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void revokeByTokenHash(Long userId, byte[] refreshTokenHash) {
+        revoke(Session.builder().userId(userId).refreshTokenHash(refreshTokenHash).build());
+    }
+
+    @Override
+    public void revokeAllForUser(Long userId) {
+        writeBehindQueue.enqueue(SessionWrite.revokeAll(userId, LocalDateTime.now()));
+        String userKey = USER_SESSIONS_KEY_PREFIX + userId;
+        Set<String> hashes = redisTemplate.opsForSet().members(userKey);
+
+        List<String> keys = new ArrayList<>();
+        keys.add(userKey);
+        if (hashes != null) {
+            hashes.forEach(hashHex -> keys.add(SESSION_KEY_PREFIX + hashHex));
+        }
+        redisTemplate.delete(keys);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfCold() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(LOADED_MARKER_KEY))) {
+            return;
+        }
+        // One node rebuilds; the others serve misses as "not found" until it finishes
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, "1", Duration.ofMinutes(10)))) {
+            return;
+        }
+
+        log.info("Session store is cold, rebuilding Redis from Postgres");
+        // Ordered by expiry so each user's session index ends up with the latest expiry
+        List<Session> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+        long[] total = {0};
+
+        readOnlyTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ACTIVE_SESSIONS_SQL);
+            statement.setFetchSize(REBUILD_CHUNK_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, resultSet -> {
+            chunk.add(mapRow(resultSet));
+            if (chunk.size() == REBUILD_CHUNK_SIZE) {
+                writeAll(chunk);
+                total[0] += chunk.size();
+                chunk.clear();
+            }
+        }));
+        writeAll(chunk);
+        total[0] += chunk.size();
+
+        redisTemplate.opsForValue().set(LOADED_MARKER_KEY, LocalDateTime.now().toString());
+        redisTemplate.delete(REBUILD_LOCK_KEY);
+        log.info("Rebuilt {} sessions into Redis", total[0]);
+    }
+
+    private Session mapRow(ResultSet rs) throws SQLException {
+        byte[] hash = rs.getBytes("refresh_token_hash");
+        if (hash == null) {
+            hash = RefreshTokenUtils.hash(rs.getString("refresh_token"));
+        }
+        Timestamp lastUsedAt = rs.getTimestamp("last_used_at");
+        String deviceType = rs.getString("device_type");
+
+        return Session.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getLong("user_id"))
+                .refreshTokenHash(hash)
+                .deviceId(rs.getString("device_id"))
+                .deviceInfo(rs.getString("device_info"))
+                .deviceType(deviceType != null ? Session.DeviceType.valueOf(deviceType) : null)
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .expiresAt(rs.getTimestamp("expires_at").toLocalDateTime())
+                .lastUsedAt(lastUsedAt != null ? lastUsedAt.toLocalDateTime() : rs.getTimestamp("created_at").toLocalDateTime())
+                .revoked(false)
+                .build();
+    }
+
+    private void writeAll(List<Session> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Session session : sessions) {
+                    String hashHex = HEX.formatHex(session.getRefreshTokenHash());
+                    String key = SESSION_KEY_PREFIX + hashHex;
+                    String userKey = USER_SESSIONS_KEY_PREFIX + session.getUserId();
+
+                    ops.opsForHash().putAll(key, toFields(session));
+                    ops.expireAt(key, session.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+                    ops.opsForSet().add(userKey, hashHex);
+                    ops.expireAt(userKey, session.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+                }
+                return null;
+            }
+        });
+    }
+
+    private static Map<String, String> toFields(Session session) {
+        Map<String, String> fields = new HashMap<>();
+        if (session.getId() != null) {
+            fields.put("id", session.getId().toString());
+        }
+        fields.put("userId", session.getUserId().toString());
+        if (session.getDeviceId() != null) {
+            fields.put("deviceId", session.getDeviceId());
+        }
+        if (session.getDeviceInfo() != null) {
+            fields.put("deviceInfo", session.getDeviceInfo());
+        }
+        if (session.getDeviceType() != null) {
+            fields.put("deviceType", session.getDeviceType().name());
+        }
+        fields.put("createdAt", session.getCreatedAt().toString());
+        fields.put("expiresAt", session.getExpiresAt().toString());
+        fields.put("lastUsedAt", session.getLastUsedAt().toString());
+        return fields;
+    }
+
+    private static String sessionKey(byte[] hash) {
+        return SESSION_KEY_PREFIX + HEX.formatHex(hash);
+    }
+}
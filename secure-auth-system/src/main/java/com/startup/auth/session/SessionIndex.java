@@ -0,0 +1,401 @@
+package com.startup.auth.session;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.startup.auth.entity.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Per-user index of live sessions in Redis, ordered by last use, with a cap per user and per
+ * device type. Adding a session over a cap evicts the least recently used sessions, which the
+ * caller then revokes. Listing and the cap check never touch Postgres.
+ * <p>
+ * Sessions are identified by the hex digest of their refresh token, which addresses the session
+ * in Redis and never leaves the server; clients see {@link IndexedSession#publicId()} instead.
+ * A user's keys share a hash tag so the scripts stay on one Redis Cluster slot; they expire with
+ * the user's last session.
+ */
+@Component
+@Slf4j
+public class SessionIndex {
+
+    private static final String KEY_PREFIX = "auth:session-index:{";
+    private static final String LOADED_MARKER_KEY = "auth:session-index:loaded";
+    private static final String REBUILD_LOCK_KEY = "auth:session-index:rebuild-lock";
+    private static final String UNKNOWN_DEVICE = "UNKNOWN";
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private static final String ACTIVE_SESSIONS_SQL =
+            "SELECT user_id, refresh_token_hash, device_id, device_info, device_type, created_at, expires_at, last_used_at " +
+            "FROM sessions WHERE revoked = false AND expires_at > ? AND refresh_token_hash IS NOT NULL ORDER BY expires_at";
+
+    // KEYS: by-last-used, by-expiry, details, then one key per device type.
+    // ARGV: member, last used, expires at, device key index, details, now, max per user, max per device type.
+    // Returns each evicted member followed by its details (empty if missing); expired members are
+    // dropped without being returned.
+    private static final RedisScript<List> ADD_SCRIPT = new DefaultRedisScript<>(
+            "local function drop(m) "
+                    + "  for i = 1, #KEYS do "
+                    + "    if i == 3 then redis.call('HDEL', KEYS[3], m) else redis.call('ZREM', KEYS[i], m) end "
+                    + "  end "
+                    + "end "
+                    + "local function evict(key, max, evicted) "
+                    + "  local over = redis.call('ZCARD', key) - max "
+                    + "  if max <= 0 or over <= 0 then return end "
+                    + "  for _, m in ipairs(redis.call('ZRANGE', key, 0, over)) do "
+                    + "    if over > 0 and m ~= ARGV[1] then "
+                    + "      table.insert(evicted, m) table.insert(evicted, redis.call('HGET', KEYS[3], m) or '') "
+                    + "      drop(m) over = over - 1 "
+                    + "    end "
+                    + "  end "
+                    + "end "
+                    + "for _, m in ipairs(redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[6])) do drop(m) end "
+                    + "local deviceKey = KEYS[tonumber(ARGV[4])] "
+                    + "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) "
+                    + "redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1]) "
+                    + "redis.call('ZADD', deviceKey, ARGV[2], ARGV[1]) "
+                    + "redis.call('HSET', KEYS[3], ARGV[1], ARGV[5]) "
+                    + "local evicted = {} "
+                    + "if ARGV[8] ~= '0' then evict(deviceKey, tonumber(ARGV[8]), evicted) end "
+                    + "evict(KEYS[1], tonumber(ARGV[7]), evicted) "
+                    + "local last = redis.call('ZRANGE', KEYS[2], -1, -1, 'WITHSCORES') "
+                    + "if last[2] then for i = 1, #KEYS do redis.call('PEXPIREAT', KEYS[i], last[2]) end end "
+                    + "return evicted",
+            List.class);
+
+    // KEYS: by-last-used, device key. ARGV: member, last used. Only moves sessions still indexed.
+    private static final RedisScript<Long> TOUCH_SCRIPT = new DefaultRedisScript<>(
+            "if not redis.call('ZSCORE', KEYS[1], ARGV[1]) then return 0 end "
+                    + "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) "
+                    + "redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxPerUser;
+    private final int maxPerDeviceType;
+
+    public SessionIndex(StringRedisTemplate redisTemplate,
+                        ObjectMapper objectMapper,
+                        JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.session.index.max-per-user:10}") int maxPerUser,
+                        @Value("${app.session.index.max-per-device-type:0}") int maxPerDeviceType) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxPerUser = maxPerUser;
+        this.maxPerDeviceType = maxPerDeviceType;
+    }
+
+    /**
+     * Indexes a new session and returns the sessions evicted to stay within the caps.
+     * Sessions without a device type only count against the per-user cap.
+     */
+    @SuppressWarnings("unchecked")
+    public List<EvictedSession> add(Session session) {
+        if (session.getRefreshTokenHash() == null) {
+            return List.of();
+        }
+        Long userId = session.getUserId();
+        String deviceType = deviceType(session.getDeviceType());
+        List<String> keys = keys(userId);
+        int deviceKeyIndex = keys.indexOf(deviceKey(userId, deviceType)) + 1;
+        int deviceCap = session.getDeviceType() != null ? maxPerDeviceType : 0;
+
+        List<String> reply = redisTemplate.execute(ADD_SCRIPT, keys,
+                HEX.formatHex(session.getRefreshTokenHash()),
+                Long.toString(epochMillis(session.getLastUsedAt() != null ? session.getLastUsedAt() : LocalDateTime.now())),
+                Long.toString(epochMillis(session.getExpiresAt())),
+                Integer.toString(deviceKeyIndex),
+                toJson(IndexedSession.of(session)),
+                Long.toString(System.currentTimeMillis()),
+                Integer.toString(maxPerUser),
+                Integer.toString(deviceCap));
+        if (reply == null || reply.isEmpty()) {
+            return List.of();
+        }
+
+        List<EvictedSession> evicted = new ArrayList<>(reply.size() / 2);
+        for (int i = 0; i + 1 < reply.size(); i += 2) {
+            String details = reply.get(i + 1);
+            Session.DeviceType evictedType = details.isEmpty() ? null : fromJson(details).deviceType();
+            evicted.add(new EvictedSession(HEX.parseHex(reply.get(i)), evictedType));
+        }
+        return evicted;
+    }
+
+    public void touch(Session session, LocalDateTime lastUsedAt) {
+        if (session.getRefreshTokenHash() == null) {
+            return;
+        }
+        Long userId = session.getUserId();
+        redisTemplate.execute(TOUCH_SCRIPT,
+                List.of(byLastUsedKey(userId), deviceKey(userId, deviceType(session.getDeviceType()))),
+                HEX.formatHex(session.getRefreshTokenHash()), Long.toString(epochMillis(lastUsedAt)));
+    }
+
+    public void remove(Long userId, byte[] refreshTokenHash) {
+        if (refreshTokenHash == null) {
+            return;
+        }
+        String member = HEX.formatHex(refreshTokenHash);
+        List<String> keys = keys(userId);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (String key : keys) {
+                    if (key.equals(detailsKey(userId))) {
+                        ops.opsForHash().delete(key, member);
+                    } else {
+                        ops.opsForZSet().remove(key, member);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    public void removeAll(Long userId) {
+        redisTemplate.delete(keys(userId));
+    }
+
+    /**
+     * The user's live sessions, most recently used first.
+     */
+    public List<IndexedSession> list(Long userId) {
+        Set<ZSetOperations.TypedTuple<String>> members =
+                redisTemplate.opsForZSet().reverseRangeWithScores(byLastUsedKey(userId), 0, -1);
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> ids = new ArrayList<>(members.size());
+        members.forEach(member -> ids.add(member.getValue()));
+        List<Object> details = redisTemplate.opsForHash().multiGet(detailsKey(userId), ids);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<IndexedSession> sessions = new ArrayList<>(members.size());
+        int i = 0;
+        for (ZSetOperations.TypedTuple<String> member : members) {
+            Object json = details.get(i++);
+            if (json == null) {
+                continue;
+            }
+            IndexedSession session = fromJson((String) json)
+                    .withLastUsedAt(toLocalDateTime(member.getScore().longValue()));
+            if (session.expiresAt().isAfter(now)) {
+                sessions.add(session);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * The most recently used live session of the user with the given {@code deviceId}. Scans the
+     * user's entries, which the per-user cap keeps short. Only the client-generated device id is
+     * matched: {@code deviceInfo} is a free-form label that several devices of one user may share.
+     */
+    public Optional<IndexedSession> findByDevice(Long userId, String deviceId) {
+        return list(userId).stream()
+                .filter(session -> deviceId.equals(session.deviceId()))
+                .findFirst();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfCold() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(LOADED_MARKER_KEY))) {
+            return;
+        }
+        // One node rebuilds; until it finishes, device lists may be incomplete
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, "1", Duration.ofMinutes(10)))) {
+            return;
+        }
+
+        log.info("Session index is cold, rebuilding it from Postgres");
+        List<Session> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+        long[] total = {0};
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ACTIVE_SESSIONS_SQL);
+            statement.setFetchSize(REBUILD_CHUNK_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp lastUsedAt = rs.getTimestamp("last_used_at");
+            String deviceType = rs.getString("device_type");
+            chunk.add(Session.builder()
+                    .userId(rs.getLong("user_id"))
+                    .refreshTokenHash(rs.getBytes("refresh_token_hash"))
+                    .deviceId(rs.getString("device_id"))
+                    .deviceInfo(rs.getString("device_info"))
+                    .deviceType(deviceType != null ? Session.DeviceType.valueOf(deviceType) : null)
+                    .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                    .expiresAt(rs.getTimestamp("expires_at").toLocalDateTime())
+                    .lastUsedAt(lastUsedAt != null ? lastUsedAt.toLocalDateTime() : rs.getTimestamp("created_at").toLocalDateTime())
+                    .build());
+            if (chunk.size() == REBUILD_CHUNK_SIZE) {
+                writeAll(chunk);
+                total[0] += chunk.size();
+                chunk.clear();
+            }
+        }));
+        writeAll(chunk);
+        total[0] += chunk.size();
+
+        redisTemplate.opsForValue().set(LOADED_MARKER_KEY, LocalDateTime.now().toString());
+        redisTemplate.delete(REBUILD_LOCK_KEY);
+        log.info("Indexed {} sessions", total[0]);
+    }
+
+    // Caps are not applied here; they take effect on each user's next login
+    private void writeAll(List<Session> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Session session : sessions) {
+                    Long userId = session.getUserId();
+                    String member = HEX.formatHex(session.getRefreshTokenHash());
+                    double lastUsed = epochMillis(session.getLastUsedAt());
+                    ops.opsForZSet().add(byLastUsedKey(userId), member, lastUsed);
+                    ops.opsForZSet().add(byExpiryKey(userId), member, epochMillis(session.getExpiresAt()));
+                    ops.opsForZSet().add(deviceKey(userId, deviceType(session.getDeviceType())), member, lastUsed);
+                    ops.opsForHash().put(detailsKey(userId), member, toJson(IndexedSession.of(session)));
+                    Instant expiresAt = session.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+                    // Rows arrive in expiry order, so each user's keys end up expiring with their last session
+                    for (String key : keys(userId)) {
+                        ops.expireAt(key, expiresAt);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    private static List<String> keys(Long userId) {
+        List<String> keys = new ArrayList<>();
+        keys.add(byLastUsedKey(userId));
+        keys.add(byExpiryKey(userId));
+        keys.add(detailsKey(userId));
+        for (Session.DeviceType deviceType : Session.DeviceType.values()) {
+            keys.add(deviceKey(userId, deviceType.name()));
+        }
+        keys.add(deviceKey(userId, UNKNOWN_DEVICE));
+        return keys;
+    }
+
+    private static String byLastUsedKey(Long userId) {
+        return KEY_PREFIX + userId + "}:by-last-used";
+    }
+
+    private static String byExpiryKey(Long userId) {
+        return KEY_PREFIX + userId + "}:by-expiry";
+    }
+
+    private static String detailsKey(Long userId) {
+        return KEY_PREFIX + userId + "}:details";
+    }
+
+    private static String deviceKey(Long userId, String deviceType) {
+        return KEY_PREFIX + userId + "}:device:" + deviceType;
+    }
+
+    private static String deviceType(Session.DeviceType deviceType) {
+        return deviceType != null ? deviceType.name() : UNKNOWN_DEVICE;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private String toJson(IndexedSession session) {
+        try {
+            return objectMapper.writeValueAsString(session);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize indexed session", e);
+        }
+    }
+
+    private IndexedSession fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, IndexedSession.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read indexed session", e);
+        }
+    }
+
+    public record EvictedSession(byte[] refreshTokenHash, Session.DeviceType deviceType) {
+    }
+
+    public record IndexedSession(String id, Session.DeviceType deviceType, String deviceId, String deviceInfo,
+                                 LocalDateTime createdAt, LocalDateTime lastUsedAt, LocalDateTime expiresAt) {
+
+        static IndexedSession of(Session session) {
+            return new IndexedSession(HEX.formatHex(session.getRefreshTokenHash()), session.getDeviceType(),
+                    session.getDeviceId(), session.getDeviceInfo(), session.getCreatedAt(), session.getLastUsedAt(),
+                    session.getExpiresAt());
+        }
+
+        IndexedSession withLastUsedAt(LocalDateTime lastUsed) {
+            return new IndexedSession(id, deviceType, deviceId, deviceInfo, createdAt, lastUsed, expiresAt);
+        }
+
+        // Truncated SHA-256 of the digest: stable across index rebuilds, useless for looking up the session
+        public String publicId() {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(HEX.parseHex(id));
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.startup.auth.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the partitioned {@code sessions} table bounded: pre-creates daily partitions,
+ * detaches and drops partitions whose sessions have all expired, and deletes revoked rows
+ * and stale {@code session_tokens} entries in small chunks with a pause between them.
+ * <p>
+ * Every node creates partitions, at startup and on each run, since inserts fail without one.
+ * The rest runs on one node at a time under a Redis lock.
+ */
+@Component
+@Slf4j
+public class SessionReaper {
+
+    private static final String LOCK_KEY = "auth:session:reaper-lock";
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("sessions_p(\\d{8})");
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final long DAY_MS = Duration.ofDays(1).toMillis();
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname, i.inhdetachpending FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'sessions'::regclass";
+    private static final String DELETE_REVOKED_SQL =
+            "DELETE FROM sessions WHERE (id, expires_at) IN " +
+            "(SELECT id, expires_at FROM sessions WHERE revoked = true AND updated_at < ? LIMIT ?)";
+    private static final String DELETE_STALE_TOKENS_SQL =
+            "DELETE FROM session_tokens WHERE refresh_token_hash IN " +
+            "(SELECT refresh_token_hash FROM session_tokens WHERE expires_at < ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Counter expiredRowsReaped;
+    private final Counter revokedRowsReaped;
+    private final Counter tokenRowsReaped;
+    private final Counter partitionsDropped;
+    private final Timer lockTime;
+
+    @Value("${app.session.reaper.partitions-ahead-days:7}")
+    private int partitionsAheadDays;
+
+    @Value("${app.session.reaper.retention-days:1}")
+    private int retentionDays;
+
+    @Value("${app.session.reaper.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.session.reaper.chunk-pause-ms:200}")
+    private long chunkPauseMs;
+
+    @Value("${app.session.reaper.lock-timeout-ms:2000}")
+    private long lockTimeoutMs;
+
+    @Value("${app.session.reaper.leader-lock-ttl-ms:3000000}")
+    private long leaderLockTtlMs;
+
+    @Value("${app.jwt.refresh-expiration-ms}")
+    private long refreshExpirationMs;
+
+    public SessionReaper(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                         StringRedisTemplate redisTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+
+        this.expiredRowsReaped = meterRegistry.counter("auth.session.reaper.rows", "reason", "expired");
+        this.revokedRowsReaped = meterRegistry.counter("auth.session.reaper.rows", "reason", "revoked");
+        this.tokenRowsReaped = meterRegistry.counter("auth.session.reaper.token_rows");
+        this.partitionsDropped = meterRegistry.counter("auth.session.reaper.partitions_dropped");
+        this.lockTime = meterRegistry.timer("auth.session.reaper.lock_time");
+    }
+
+    // There is no default partition, so a session must never expire past the last pre-created day
+    @PostConstruct
+    void checkPartitionHorizon() {
+        long requiredDays = (refreshExpirationMs + DAY_MS - 1) / DAY_MS + 1;
+        if (partitionsAheadDays < requiredDays) {
+            throw new IllegalStateException("app.session.reaper.partitions-ahead-days must be at least "
+                    + requiredDays + " for the configured refresh token lifetime");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Could not create session partitions at startup: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${app.session.reaper.cron:0 15 * * * *}")
+    public void reap() {
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Could not create session partitions: {}", e.getMessage(), e);
+        }
+
+        String owner = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY, owner, Duration.ofMillis(leaderLockTtlMs)))) {
+                log.debug("Session reaper is running on another node");
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Skipping session reaper run, could not take the lock: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            LocalDate lastDroppable = LocalDate.now().minusDays(retentionDays + 1L);
+            long expired = dropExpiredPartitions(lastDroppable);
+
+            long revoked = deleteInChunks(DELETE_REVOKED_SQL, LocalDateTime.now().minusDays(retentionDays));
+            // Entries of rows in dropped partitions; entries of deleted rows go with them
+            long tokens = deleteInChunks(DELETE_STALE_TOKENS_SQL, lastDroppable.plusDays(1).atStartOfDay());
+            revokedRowsReaped.increment(revoked);
+            tokenRowsReaped.increment(tokens);
+
+            log.info("Session reaper dropped {} expired rows and deleted {} revoked rows and {} stale token entries",
+                    expired, revoked, tokens);
+            eventPublisher.publishEvent(new SessionsReapedEvent(expired, revoked, tokens));
+        } catch (Exception e) {
+            log.error("Session reaper failed: {}", e.getMessage(), e);
+        } finally {
+            releaseLock(owner);
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        Integer created = inTransaction(() ->
+                jdbcTemplate.queryForObject("SELECT create_session_partitions(?)", Integer.class, partitionsAheadDays));
+        if (created != null && created > 0) {
+            log.info("Created {} session partitions", created);
+        }
+    }
+
+    // Returns the number of rows in the dropped partitions
+    private long dropExpiredPartitions(LocalDate lastDroppable) {
+        // A daily partition holds sessions expiring that day; drop it once the whole day is past retention
+        List<Partition> partitions = transactionTemplate.execute(status ->
+                jdbcTemplate.query(LIST_PARTITIONS_SQL, (rs, rowNum) ->
+                        new Partition(rs.getString("relname"), rs.getBoolean("inhdetachpending"))));
+
+        long rows = 0;
+        for (Partition partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition.name());
+            if (!matcher.matches() || LocalDate.parse(matcher.group(1), PARTITION_DATE).isAfter(lastDroppable)) {
+                continue;
+            }
+
+            // Counted before the detach: the partition is past its day, so no rows arrive meanwhile
+            Long partitionRows = transactionTemplate.execute(status ->
+                    jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition.name(), Long.class));
+            long count = partitionRows != null ? partitionRows : 0;
+
+            // An interrupted concurrent detach leaves the partition pending until finalized
+            detach(partition.name(), partition.detachPending() ? "FINALIZE" : "CONCURRENTLY");
+            inTransaction(() -> {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                return null;
+            });
+            partitionsDropped.increment();
+            expiredRowsReaped.increment(count);
+            rows += count;
+            log.info("Dropped expired session partition {} with {} rows", partition.name(), count);
+        }
+        return rows;
+    }
+
+    // DETACH ... CONCURRENTLY cannot run inside a transaction block, so it runs on an auto-commit
+    // connection; it takes SHARE UPDATE EXCLUSIVE and does not block reads or writes on sessions
+    private void detach(String partition, String mode) {
+        lockTime.record(() -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET lock_timeout = " + lockTimeoutMs);
+                try {
+                    statement.execute("ALTER TABLE sessions DETACH PARTITION " + partition + " " + mode);
+                } finally {
+                    statement.execute("RESET lock_timeout");
+                }
+            }
+            return null;
+        }));
+    }
+
+    private long deleteInChunks(String sql, LocalDateTime cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = inTransaction(() -> jdbcTemplate.update(sql, Timestamp.valueOf(cutoff), chunkSize));
+            total += deleted;
+            if (deleted == chunkSize) {
+                pause();
+            }
+        } while (deleted == chunkSize);
+        return total;
+    }
+
+    // Each unit of work holds its locks only for the duration of its own short transaction
+    private <T> T inTransaction(Supplier<T> work) {
+        return lockTime.record(() -> transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+            return work.get();
+        }));
+    }
+
+    private void releaseLock(String owner) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_KEY), owner);
+        } catch (Exception e) {
+            log.warn("Could not release the session reaper lock, it expires on its own: {}", e.getMessage());
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Partition(String name, boolean detachPending) {
+    }
+}
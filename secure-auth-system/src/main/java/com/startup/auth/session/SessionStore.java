@@ -0,0 +1,49 @@
+package com.startup.auth.session;
+
+import com.startup.auth.entity.Session;
+import com.startup.auth.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Where live refresh-token sessions are kept. Selected with {@code app.session.store}.
+ */
+public interface SessionStore {
+
+    Session create(User user, String refreshToken, String deviceId, String deviceInfo, LocalDateTime expiresAt);
+
+    Optional<Session> findActive(String refreshToken);
+
+    /**
+     * Moves a live session to a new refresh token and expiry, keeping its row id.
+     * <p>
+     * {@code sessions} is range-partitioned by {@code expires_at} per day, so a rotation whose new
+     * expiry falls on another day than the old one moves the row to another partition, which
+     * Postgres runs as a DELETE plus an INSERT. With refresh tokens living one day, that is every
+     * rotation except a second sign-in on the same day. Counted in
+     * {@code auth.session.rotations} by {@code partition} ({@code same} or {@code moved}).
+     *
+     * @return false if the session is no longer live, in which case nothing changed
+     */
+    boolean rotate(Long userId, byte[] previousTokenHash, String refreshToken, LocalDateTime expiresAt);
+
+    void touch(Session session, LocalDateTime lastUsedAt);
+
+    void revoke(Session session);
+
+    /**
+     * Revokes a session known only by its owner and refresh-token digest, as kept in {@link SessionIndex}.
+     */
+    void revokeByTokenHash(Long userId, byte[] refreshTokenHash);
+
+    void revokeAllForUser(Long userId);
+
+    /**
+     * Whether sessions live in the {@code sessions} table, so callers may insert them as part
+     * of a larger statement instead of going through {@link #create}.
+     */
+    default boolean isDatabaseBacked() {
+        return false;
+    }
+}
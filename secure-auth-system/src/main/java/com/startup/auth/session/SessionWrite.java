@@ -0,0 +1,71 @@
+package com.startup.auth.session;
+
+import com.startup.auth.entity.Session;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * A pending change to the {@code sessions} table. Rows are addressed by id and expiry, the
+ * partition key, when the id is known (sessions recovered from Postgres) and by refresh-token
+ * digest otherwise.
+ */
+record SessionWrite(Type type,
+                    Long sessionId,
+                    byte[] tokenHash,
+                    byte[] previousTokenHash,
+                    Long userId,
+                    String deviceId,
+                    String deviceInfo,
+                    Session.DeviceType deviceType,
+                    LocalDateTime expiresAt,
+                    LocalDateTime timestamp) {
+
+    enum Type {
+        CREATE, ROTATE, TOUCH, REVOKE, REVOKE_ALL
+    }
+
+    boolean addressedById() {
+        return sessionId != null && expiresAt != null;
+    }
+
+    static SessionWrite create(Session session) {
+        return new SessionWrite(Type.CREATE, null, session.getRefreshTokenHash(), null, session.getUserId(),
+                session.getDeviceId(), session.getDeviceInfo(), session.getDeviceType(), session.getExpiresAt(),
+                session.getCreatedAt());
+    }
+
+    // The row keeps its id; only the token digest, expiry and last use change
+    static SessionWrite rotate(Session session, byte[] previousTokenHash) {
+        return new SessionWrite(Type.ROTATE, null, session.getRefreshTokenHash(), previousTokenHash, session.getUserId(),
+                null, null, null, session.getExpiresAt(), session.getLastUsedAt());
+    }
+
+    static SessionWrite touch(Session session, LocalDateTime lastUsedAt) {
+        return new SessionWrite(Type.TOUCH, session.getId(), session.getRefreshTokenHash(), null, session.getUserId(),
+                null, null, null, session.getExpiresAt(), lastUsedAt);
+    }
+
+    static SessionWrite revoke(Session session, LocalDateTime revokedAt) {
+        return new SessionWrite(Type.REVOKE, session.getId(), session.getRefreshTokenHash(), null, session.getUserId(),
+                null, null, null, session.getExpiresAt(), revokedAt);
+    }
+
+    // Only sessions created up to the cut-off are revoked, so later logins in the same batch survive
+    static SessionWrite revokeAll(Long userId, LocalDateTime cutoff) {
+        return new SessionWrite(Type.REVOKE_ALL, null, null, null, userId, null, null, null, null, cutoff);
+    }
+
+    // Enough to replay the write by hand from the dead-letter log
+    @Override
+    public String toString() {
+        return "SessionWrite[type=" + type + ", sessionId=" + sessionId + ", userId=" + userId
+                + ", tokenHash=" + hex(tokenHash) + ", previousTokenHash=" + hex(previousTokenHash)
+                + ", deviceId=" + deviceId + ", deviceInfo=" + deviceInfo + ", deviceType=" + deviceType
+                + ", expiresAt=" + expiresAt + ", timestamp=" + timestamp + "]";
+    }
+
+    private static String hex(byte[] bytes) {
+        return bytes != null ? HexFormat.of().formatHex(bytes) : null;
+    }
+}
@@ -0,0 +1,252 @@
+package com.startup.auth.session;
+
+import com.startup.auth.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies session changes to Postgres asynchronously, in batches.
+ * <p>
+ * Writes are applied in the order they were queued, up to {@code batch-size} per transaction;
+ * consecutive writes using the same statement go out as one JDBC batch. A batch that fails is
+ * retried before anything newer; after {@code max-attempts} failures its writes are applied one
+ * at a time, and a write the database rejects is logged to the {@code .dead-letter} logger and skipped.
+ * While the database is unreachable nothing is skipped. When the queue is full, callers wait
+ * briefly for space and then get a 503 rather than a write being reordered or dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "app.session.store", havingValue = "redis")
+@Slf4j
+public class SessionWriteBehindQueue {
+
+    private static final Logger DEAD_LETTER_LOG = LoggerFactory.getLogger(SessionWriteBehindQueue.class.getName() + ".dead-letter");
+
+    // Resolves a digest to its row through session_tokens, so the UPDATE touches a single partition
+    private static final String TOKEN_LOOKUP_SQL =
+            "SELECT session_id, expires_at FROM session_tokens WHERE refresh_token_hash = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO sessions (user_id, refresh_token_hash, device_id, device_info, device_type, created_at, expires_at, revoked, last_used_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, false, ?) ON CONFLICT (refresh_token_hash, expires_at) DO NOTHING";
+    private static final String ROTATE_SQL =
+            "UPDATE sessions SET refresh_token_hash = ?, expires_at = ?, last_used_at = ? " +
+            "WHERE (id, expires_at) = (" + TOKEN_LOOKUP_SQL + ") AND revoked = false";
+    private static final String TOUCH_BY_HASH_SQL =
+            "UPDATE sessions SET last_used_at = ? WHERE (id, expires_at) = (" + TOKEN_LOOKUP_SQL + ")";
+    // expires_at is the partition key, so the update touches a single partition
+    private static final String TOUCH_BY_ID_SQL = "UPDATE sessions SET last_used_at = ? WHERE id = ? AND expires_at = ?";
+    private static final String REVOKE_BY_HASH_SQL =
+            "UPDATE sessions SET revoked = true WHERE (id, expires_at) = (" + TOKEN_LOOKUP_SQL + ")";
+    private static final String REVOKE_BY_ID_SQL = "UPDATE sessions SET revoked = true WHERE id = ? AND expires_at = ?";
+    private static final String REVOKE_ALL_SQL =
+            "UPDATE sessions SET revoked = true WHERE user_id = ? AND revoked = false AND created_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<SessionWrite> queue;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long overflowWaitMs;
+
+    // Guards pending and failedAttempts. Not synchronized: flushes run JDBC batches, which would
+    // pin the carrier of a virtual scheduler thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Taken from the queue but not yet applied; always applied before anything newer
+    private final List<SessionWrite> pending = new ArrayList<>();
+    private int failedAttempts;
+
+    private final Counter flushed;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final Counter overflowed;
+
+    public SessionWriteBehindQueue(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.session.write-behind.capacity:50000}") int capacity,
+                                   @Value("${app.session.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${app.session.write-behind.max-attempts:3}") int maxAttempts,
+                                   @Value("${app.session.write-behind.overflow-wait-ms:1000}") long overflowWaitMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.overflowWaitMs = overflowWaitMs;
+
+        this.flushed = meterRegistry.counter("auth.session.write_behind.flushed");
+        this.failed = meterRegistry.counter("auth.session.write_behind.failed");
+        this.deadLettered = meterRegistry.counter("auth.session.write_behind.dead_lettered");
+        this.overflowed = meterRegistry.counter("auth.session.write_behind.overflowed");
+        meterRegistry.gauge("auth.session.write_behind.pending", queue, BlockingQueue::size);
+    }
+
+    /**
+     * @throws ServiceBusyException if the queue stays full for {@code overflow-wait-ms}
+     */
+    public void enqueue(SessionWrite write) {
+        if (queue.offer(write)) {
+            return;
+        }
+        overflowed.increment();
+        try {
+            if (queue.offer(write, overflowWaitMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new ServiceBusyException("Session storage is busy, please retry shortly",
+                Math.max(1, TimeUnit.MILLISECONDS.toSeconds(overflowWaitMs)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.session.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty() || queue.drainTo(pending, batchSize) > 0) {
+                if (!applyPending()) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return whether every pending write was applied or dead-lettered; otherwise they stay
+     * pending, in order, for the next flush
+     */
+    private boolean applyPending() {
+        if (failedAttempts < maxAttempts) {
+            try {
+                apply(pending);
+                flushed.increment(pending.size());
+                pending.clear();
+                failedAttempts = 0;
+                return true;
+            } catch (Exception e) {
+                failedAttempts++;
+                failed.increment(pending.size());
+                log.warn("Failed to persist {} session writes (attempt {} of {}), retrying before newer writes: {}",
+                        pending.size(), failedAttempts, maxAttempts, e.getMessage());
+                return false;
+            }
+        }
+
+        // The batch keeps failing: apply it one write at a time so a single bad write cannot hold back the rest
+        Iterator<SessionWrite> writes = pending.iterator();
+        while (writes.hasNext()) {
+            SessionWrite write = writes.next();
+            try {
+                apply(List.of(write));
+                flushed.increment();
+            } catch (Exception e) {
+                if (!isRejectedWrite(e)) {
+                    log.warn("Database unavailable, {} session writes pending: {}", pending.size(), e.getMessage());
+                    return false;
+                }
+                deadLettered.increment();
+                DEAD_LETTER_LOG.error("Skipping session write rejected by the database: {}: {}", write, e.getMessage());
+            }
+            writes.remove();
+        }
+        failedAttempts = 0;
+        return true;
+    }
+
+    // Errors that recur for the same write, as opposed to the database being unreachable
+    private static boolean isRejectedWrite(Exception e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            log.info("Flushing {} pending session writes before shutdown", pending.size() + queue.size());
+            flush();
+            if (!pending.isEmpty() || !queue.isEmpty()) {
+                log.error("{} session writes were not persisted before shutdown", pending.size() + queue.size());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Splitting wherever the statement changes keeps queue order: a touch queued before a rotation
+    // must still find the session by its old digest
+    private void apply(List<SessionWrite> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            String sql = null;
+            List<Object[]> run = new ArrayList<>();
+            for (SessionWrite write : batch) {
+                String writeSql = sqlOf(write);
+                if (!writeSql.equals(sql)) {
+                    batchUpdate(sql, run);
+                    sql = writeSql;
+                    run = new ArrayList<>();
+                }
+                run.add(argsOf(write));
+            }
+            batchUpdate(sql, run);
+        });
+    }
+
+    private static String sqlOf(SessionWrite write) {
+        return switch (write.type()) {
+            case CREATE -> INSERT_SQL;
+            case ROTATE -> ROTATE_SQL;
+            case TOUCH -> write.addressedById() ? TOUCH_BY_ID_SQL : TOUCH_BY_HASH_SQL;
+            case REVOKE -> write.addressedById() ? REVOKE_BY_ID_SQL : REVOKE_BY_HASH_SQL;
+            case REVOKE_ALL -> REVOKE_ALL_SQL;
+        };
+    }
+
+    private static Object[] argsOf(SessionWrite write) {
+        return switch (write.type()) {
+            case CREATE -> new Object[]{
+                    write.userId(), write.tokenHash(), write.deviceId(), write.deviceInfo(),
+                    write.deviceType() != null ? write.deviceType().name() : null,
+                    Timestamp.valueOf(write.timestamp()), Timestamp.valueOf(write.expiresAt()),
+                    Timestamp.valueOf(write.timestamp())};
+            case ROTATE -> new Object[]{
+                    write.tokenHash(), Timestamp.valueOf(write.expiresAt()),
+                    Timestamp.valueOf(write.timestamp()), write.previousTokenHash()};
+            case TOUCH -> write.addressedById()
+                    ? new Object[]{Timestamp.valueOf(write.timestamp()), write.sessionId(), Timestamp.valueOf(write.expiresAt())}
+                    : new Object[]{Timestamp.valueOf(write.timestamp()), write.tokenHash()};
+            case REVOKE -> write.addressedById()
+                    ? new Object[]{write.sessionId(), Timestamp.valueOf(write.expiresAt())}
+                    : new Object[]{write.tokenHash()};
+            case REVOKE_ALL -> new Object[]{write.userId(), Timestamp.valueOf(write.timestamp())};
+        };
+    }
+
+    private void batchUpdate(String sql, List<Object[]> args) {
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+}
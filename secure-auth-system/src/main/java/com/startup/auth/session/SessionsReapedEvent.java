@@ -0,0 +1,7 @@
+package com.startup.auth.session;
+
+/**
+ * Published after each {@link SessionReaper} run.
+ */
+public record SessionsReapedEvent(long expiredRows, long revokedRows, long tokenRows) {
+}
@@ -1,11 +1,5 @@
--- Database initialization script for PostgreSQL
--- startup_auth_db_init.sql
-
--- Create database (run as superuser)
--- CREATE DATABASE startup_auth_db;
-
--- Connect to the database
--- \c startup_auth_db;
+-- Baseline schema, previously applied by hand from database/init.sql.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate).
 
 -- Enable UUID extension
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
@@ -128,5 +122,3 @@ CREATE TRIGGER update_roles_updated_at BEFORE UPDATE ON roles
 
 CREATE TRIGGER update_sessions_updated_at BEFORE UPDATE ON sessions
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
-
-COMMIT;
\ No newline at end of file
@@ -0,0 +1,21 @@
+-- Opaque refresh tokens: store a 32-byte SHA-256 digest instead of the full JWT.
+-- Legacy JWT refresh tokens keep working through refresh_token until they expire;
+-- once no live session has refresh_token set, the column can be dropped.
+-- Written to be re-runnable for databases that applied the former hand-run script.
+
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS refresh_token_hash BYTEA;
+
+ALTER TABLE sessions ALTER COLUMN refresh_token DROP NOT NULL;
+
+ALTER TABLE sessions DROP CONSTRAINT IF EXISTS sessions_refresh_token_check;
+ALTER TABLE sessions ADD CONSTRAINT sessions_refresh_token_check
+    CHECK (refresh_token IS NOT NULL OR refresh_token_hash IS NOT NULL);
+
+ALTER TABLE sessions DROP CONSTRAINT IF EXISTS sessions_refresh_token_hash_length_check;
+ALTER TABLE sessions ADD CONSTRAINT sessions_refresh_token_hash_length_check
+    CHECK (octet_length(refresh_token_hash) = 32);
+
+CREATE UNIQUE INDEX IF NOT EXISTS sessions_refresh_token_hash_key ON sessions(refresh_token_hash);
+
+-- Redundant with the UNIQUE constraint on refresh_token
+DROP INDEX IF EXISTS idx_sessions_refresh_token;
@@ -0,0 +1,13 @@
+-- last_login and last_used_at are written by batched background UPDATEs.
+-- Restrict the updated_at triggers to the columns that carry real changes.
+
+DROP TRIGGER IF EXISTS update_users_updated_at ON users;
+CREATE TRIGGER update_users_updated_at
+    BEFORE UPDATE OF email, phone, password_hash, is_active, mfa_enabled, updated_by ON users
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+DROP TRIGGER IF EXISTS update_sessions_updated_at ON sessions;
+CREATE TRIGGER update_sessions_updated_at
+    BEFORE UPDATE OF refresh_token, refresh_token_hash, firebase_token, device_info, device_type,
+                     ip_address, expires_at, revoked, updated_by ON sessions
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
@@ -0,0 +1,78 @@
+-- Range-partition sessions by expires_at, one partition per day, so expired sessions
+-- are removed by dropping whole partitions instead of row-by-row UPDATE/DELETE.
+-- Unique keys on a partitioned table must include the partition key.
+
+-- Only live sessions are carried over; expired and revoked rows go with the old table
+CREATE TEMPORARY TABLE live_sessions ON COMMIT DROP AS
+SELECT * FROM sessions WHERE revoked = FALSE AND expires_at > CURRENT_TIMESTAMP;
+
+ALTER SEQUENCE sessions_id_seq OWNED BY NONE;
+DROP TABLE sessions;
+
+CREATE TABLE sessions (
+    id BIGINT NOT NULL DEFAULT nextval('sessions_id_seq'),
+    user_id BIGINT NOT NULL,
+    refresh_token VARCHAR(500),
+    refresh_token_hash BYTEA,
+    firebase_token TEXT,
+    device_info TEXT,
+    device_type VARCHAR(20),
+    ip_address INET,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    last_used_at TIMESTAMP WITHOUT TIME ZONE,
+    updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+
+    PRIMARY KEY (id, expires_at),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+
+    -- Constraints
+    CONSTRAINT sessions_refresh_token_key UNIQUE (refresh_token, expires_at),
+    CONSTRAINT sessions_refresh_token_hash_key UNIQUE (refresh_token_hash, expires_at),
+    CONSTRAINT sessions_device_type_check CHECK (device_type IN ('ANDROID', 'IOS', 'WEB', 'DESKTOP')),
+    CONSTRAINT sessions_expires_at_check CHECK (expires_at > created_at),
+    CONSTRAINT sessions_refresh_token_check CHECK (refresh_token IS NOT NULL OR refresh_token_hash IS NOT NULL),
+    CONSTRAINT sessions_refresh_token_hash_length_check CHECK (octet_length(refresh_token_hash) = 32)
+) PARTITION BY RANGE (expires_at);
+
+ALTER SEQUENCE sessions_id_seq OWNED BY sessions.id;
+
+-- Catches rows outside the pre-created daily range; the reaper cleans it in chunks
+CREATE TABLE sessions_default PARTITION OF sessions DEFAULT;
+
+CREATE INDEX idx_sessions_user_revoked_expires ON sessions(user_id, revoked, expires_at);
+
+CREATE TRIGGER update_sessions_updated_at
+    BEFORE UPDATE OF refresh_token, refresh_token_hash, firebase_token, device_info, device_type,
+                     ip_address, expires_at, revoked, updated_by ON sessions
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+-- Creates the daily partitions sessions_pYYYYMMDD from today through days_ahead days out
+CREATE OR REPLACE FUNCTION create_session_partitions(days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    day DATE;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..days_ahead LOOP
+        day := CURRENT_DATE + i;
+        IF to_regclass('sessions_p' || to_char(day, 'YYYYMMDD')) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF sessions FOR VALUES FROM (%L) TO (%L)',
+                           'sessions_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ language 'plpgsql';
+
+SELECT create_session_partitions(7);
+
+INSERT INTO sessions (id, user_id, refresh_token, refresh_token_hash, firebase_token, device_info, device_type,
+                      ip_address, created_at, expires_at, revoked, last_used_at, updated_at, created_by, updated_by)
+SELECT id, user_id, refresh_token, refresh_token_hash, firebase_token, device_info, device_type,
+       ip_address, created_at, expires_at, revoked, last_used_at, updated_at, created_by, updated_by
+FROM live_sessions;
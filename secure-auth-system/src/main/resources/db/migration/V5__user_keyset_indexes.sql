@@ -0,0 +1,9 @@
+-- Keyset pagination over users orders by (created_at, id) and (last_login, id).
+-- The composite indexes serve both the seek predicate and the ordering, and replace
+-- the single-column indexes on the same leading columns.
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_last_login_id ON users(last_login, id);
+
+DROP INDEX IF EXISTS idx_users_created_at;
+DROP INDEX IF EXISTS idx_users_last_login;
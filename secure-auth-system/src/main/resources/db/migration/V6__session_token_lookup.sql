@@ -0,0 +1,80 @@
+-- Unique keys on the partitioned sessions table include expires_at, so refresh-token digests
+-- are no longer globally unique and a lookup by digest probes every partition.
+-- session_tokens maps each digest to its row's (id, expires_at): the primary key restores
+-- global uniqueness and lookups resolve to a single partition.
+
+CREATE TABLE session_tokens (
+    refresh_token_hash BYTEA PRIMARY KEY,
+    session_id BIGINT NOT NULL,
+    expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+
+    CONSTRAINT session_tokens_refresh_token_hash_length_check CHECK (octet_length(refresh_token_hash) = 32)
+);
+
+-- Dropped partitions fire no triggers; the reaper deletes their entries by expiry
+CREATE INDEX idx_session_tokens_expires_at ON session_tokens(expires_at);
+
+-- A rotation that moves a row to another partition fires DELETE and INSERT instead of UPDATE
+CREATE OR REPLACE FUNCTION index_session_token()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.refresh_token_hash IS NOT NULL THEN
+        DELETE FROM session_tokens WHERE refresh_token_hash = OLD.refresh_token_hash AND session_id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.refresh_token_hash IS NOT NULL THEN
+        INSERT INTO session_tokens (refresh_token_hash, session_id, expires_at)
+        VALUES (NEW.refresh_token_hash, NEW.id, NEW.expires_at);
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER index_sessions_refresh_token_hash
+    AFTER INSERT OR UPDATE OF refresh_token_hash, expires_at OR DELETE ON sessions
+    FOR EACH ROW EXECUTE FUNCTION index_session_token();
+
+INSERT INTO session_tokens (refresh_token_hash, session_id, expires_at)
+SELECT refresh_token_hash, id, expires_at FROM sessions WHERE refresh_token_hash IS NOT NULL
+ON CONFLICT (refresh_token_hash) DO NOTHING;
+
+-- The reaper deletes revoked rows by updated_at
+CREATE INDEX idx_sessions_revoked_updated_at ON sessions(updated_at) WHERE revoked = TRUE;
+
+-- DETACH PARTITION ... CONCURRENTLY is not allowed while a default partition exists.
+-- Partitions are now created ahead of the longest session lifetime, which the reaper checks
+-- at startup, so the default partition goes; its live rows move to daily partitions.
+CREATE TEMPORARY TABLE default_sessions ON COMMIT DROP AS
+SELECT * FROM sessions_default WHERE revoked = FALSE AND expires_at > CURRENT_TIMESTAMP;
+
+ALTER TABLE sessions DETACH PARTITION sessions_default;
+DROP TABLE sessions_default;
+DELETE FROM session_tokens t WHERE NOT EXISTS
+    (SELECT 1 FROM sessions s WHERE s.id = t.session_id AND s.expires_at = t.expires_at);
+
+-- Partitions are created one at a time so that two nodes creating the same partition do not fail
+CREATE OR REPLACE FUNCTION create_session_partitions(days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    day DATE;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..days_ahead LOOP
+        day := CURRENT_DATE + i;
+        IF to_regclass('sessions_p' || to_char(day, 'YYYYMMDD')) IS NULL THEN
+            BEGIN
+                EXECUTE format('CREATE TABLE %I PARTITION OF sessions FOR VALUES FROM (%L) TO (%L)',
+                               'sessions_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+                created := created + 1;
+            EXCEPTION WHEN duplicate_table THEN
+                -- Created by another node meanwhile
+                NULL;
+            END;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ language 'plpgsql';
+
+SELECT create_session_partitions(GREATEST(7, (SELECT COALESCE(MAX(expires_at)::date - CURRENT_DATE, 0) FROM default_sessions)));
+
+INSERT INTO sessions SELECT * FROM default_sessions;
@@ -0,0 +1,5 @@
+-- A stable identifier the client generates once per install. Signing in again from a device
+-- that already holds a live session reuses that session, so the match needs a value unique to
+-- the device: device_info is a free-form label that two phones on one account can share.
+
+ALTER TABLE sessions ADD COLUMN device_id TEXT;
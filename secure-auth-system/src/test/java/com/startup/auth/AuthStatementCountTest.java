@@ -0,0 +1,169 @@
+package com.startup.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.startup.auth.otp.StubOtpSender;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of database round trips of the hot authentication paths against Postgres and
+ * Redis containers. A budget may only grow with a reason; background flushes are not counted.
+ * Every path reaches the database at least once, so a count of zero means the counter no longer
+ * wraps the pool the application uses.
+ */
+@SpringBootTest(properties = {"app.otp.sender=stub", "app.session.store=database"})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class AuthStatementCountTest {
+
+    // Credentials lookup unless the principal is cached, then the session insert
+    private static final int LOGIN_BUDGET = 2;
+    // Session lookup by token digest, then the user row unless it is cached; last use is written behind
+    private static final int REFRESH_BUDGET = 2;
+    // User lookup by phone, which is never cached, then the session insert
+    private static final int VERIFY_OTP_BUDGET = 2;
+
+    private static final String PASSWORD = "password123";
+    private static final Pattern OTP_CODE = Pattern.compile("\\d{6}");
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private StubOtpSender otpSender;
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor(StatementCounter statementCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? statementCounter.wrap(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    @Test
+    void loginStaysWithinStatementBudget() throws Exception {
+        String email = register().email();
+
+        int statements = statementCounter.count(() ->
+                postJson("/auth/login", Map.of("email", email, "password", PASSWORD)));
+
+        assertThat(statements).as("statements per login").isBetween(1, LOGIN_BUDGET);
+    }
+
+    @Test
+    void refreshStaysWithinStatementBudget() throws Exception {
+        String email = register().email();
+        String refreshToken = postJson("/auth/login", Map.of("email", email, "password", PASSWORD))
+                .path("data").path("refreshToken").asText();
+
+        int statements = statementCounter.count(() ->
+                postJson("/auth/refresh-token", Map.of("refreshToken", refreshToken)));
+
+        assertThat(statements).as("statements per refresh").isBetween(1, REFRESH_BUDGET);
+    }
+
+    @Test
+    void verifyOtpStaysWithinStatementBudget() throws Exception {
+        String phone = register().phone();
+        postJson("/auth/send-otp", Map.of("phoneNumber", phone));
+        String code = awaitOtpCode(phone);
+
+        AtomicReference<JsonNode> response = new AtomicReference<>();
+        int statements = statementCounter.count(() -> {
+            response.set(postJson("/auth/verify-otp", Map.of("phoneNumber", phone, "otp", code)));
+            return null;
+        });
+
+        assertThat(response.get().path("data").hasNonNull("accessToken")).isTrue();
+        assertThat(statements).as("statements per OTP verification").isEqualTo(VERIFY_OTP_BUDGET);
+    }
+
+    private TestUser register() throws Exception {
+        int n = USERS.incrementAndGet();
+        TestUser user = new TestUser("it-user-" + n + "-" + System.nanoTime() + "@example.com",
+                String.format("+1555%07d", n));
+        postJson("/auth/register", Map.of("email", user.email(), "phone", user.phone(), "password", PASSWORD));
+        return user;
+    }
+
+    private JsonNode postJson(String path, Map<String, String> body) throws Exception {
+        MvcResult result = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(body)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    // The SMS is dispatched in the background
+    private String awaitOtpCode(String phone) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<String> message = otpSender.lastMessage(phone);
+            if (message.isPresent()) {
+                Matcher matcher = OTP_CODE.matcher(message.get());
+                assertThat(matcher.find()).as("OTP code in message").isTrue();
+                return matcher.group();
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No OTP message for " + phone);
+    }
+
+    private record TestUser(String email, String phone) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.startup.auth;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts JDBC statement executions, one per round trip (a batch counts once), made by the thread
+ * inside {@link #count}. Background work on other threads, such as activity flushes, is not counted.
+ */
+final class StatementCounter {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private volatile Thread countedThread;
+
+    DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return connection(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return connection(super.getConnection(username, password));
+            }
+        };
+    }
+
+    int count(Callable<?> work) throws Exception {
+        executions.set(0);
+        countedThread = Thread.currentThread();
+        try {
+            work.call();
+        } finally {
+            countedThread = null;
+        }
+        return executions.get();
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, result) -> switch (method.getName()) {
+            case "createStatement" -> statement(Statement.class, (Statement) result);
+            case "prepareStatement" -> statement(PreparedStatement.class, (Statement) result);
+            case "prepareCall" -> statement(CallableStatement.class, (Statement) result);
+            default -> result;
+        });
+    }
+
+    private <T extends Statement> T statement(Class<T> type, Statement target) {
+        return proxy(type, type.cast(target), (method, result) -> result);
+    }
+
+    private <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+        Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getName().equals("equals")) {
+                return self == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(self);
+            }
+            if (method.getName().startsWith("execute") && Statement.class.isAssignableFrom(type)
+                    && Thread.currentThread() == countedThread) {
+                executions.incrementAndGet();
+            }
+            try {
+                return mapper.map(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    @FunctionalInterface
+    private interface ResultMapper {
+        Object map(Method method, Object result);
+    }
+}